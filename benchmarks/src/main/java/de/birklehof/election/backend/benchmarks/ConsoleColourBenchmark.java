@@ -0,0 +1,98 @@
+/*
+ * This file is part of election-backend, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) Pasqual Koschmieder <https://github.com/derklaro>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package de.birklehof.election.backend.benchmarks;
+
+import de.birklehof.election.backend.logger.ConsoleColour;
+import org.jetbrains.annotations.NotNull;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ConsoleColourBenchmark {
+
+    private static final ConsoleColour[] COLOURS = ConsoleColour.values();
+    private static final Pattern[] LEGACY_PATTERNS = new Pattern[COLOURS.length];
+    private static final Pattern LEGACY_STRIP_PATTERN = Pattern.compile("(?i)" + ConsoleColour.COLOR_CHAR + "[0-9A-FK-OR]");
+
+    static {
+        for (int i = 0; i < COLOURS.length; i++) {
+            LEGACY_PATTERNS[i] = Pattern.compile("(?i)" + COLOURS[i]);
+        }
+    }
+
+    // what the formatter produces for the console: timestamp, coloured level and the message
+    @Param({
+        "19.10.2020 18:42:01 [§aINFO§r] Team 3 was registered successfully with id 3",
+        "19.10.2020 18:42:01 [§cSEVERE§r] &cUnable to send the verification mail to &emax.mustermann.abi21@s.birklehof.de",
+        "\tat de.birklehof.election.backend.sql.HikariSQLController.executeUpdate(HikariSQLController.java:49)"
+    })
+    private String line;
+
+    @Benchmark
+    public String colourLegacy() {
+        return legacyToColouredString('&', this.line);
+    }
+
+    @Benchmark
+    public String colourLookupTable() {
+        return ConsoleColour.toColouredString('&', this.line);
+    }
+
+    // the file formatter used to translate the codes before stripping them
+    @Benchmark
+    public String stripLegacy() {
+        return LEGACY_STRIP_PATTERN.matcher(legacyToColouredString('&', this.line)).replaceAll("");
+    }
+
+    @Benchmark
+    public String stripLookupTable() {
+        return ConsoleColour.stripColor('&', this.line);
+    }
+
+    // the translation before the lookup table: one regex pass per colour
+    @NotNull
+    private static String legacyToColouredString(char altColorChar, @NotNull String textToTranslate) {
+        char[] b = textToTranslate.toCharArray();
+        for (int i = 0; i < b.length - 1; i++) {
+            if (b[i] == altColorChar && ConsoleColour.ALL_CODES.indexOf(b[i + 1]) > -1) {
+                b[i] = ConsoleColour.COLOR_CHAR;
+                b[i + 1] = Character.toLowerCase(b[i + 1]);
+            }
+        }
+
+        String s = new String(b);
+        for (int i = 0; i < COLOURS.length; i++) {
+            s = LEGACY_PATTERNS[i].matcher(s).replaceAll(COLOURS[i].getAnsi());
+        }
+        return s;
+    }
+}
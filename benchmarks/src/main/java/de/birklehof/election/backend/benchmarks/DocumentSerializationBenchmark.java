@@ -0,0 +1,79 @@
+/*
+ * This file is part of election-backend, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) Pasqual Koschmieder <https://github.com/derklaro>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package de.birklehof.election.backend.benchmarks;
+
+import com.github.derrop.documents.DefaultDocument;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// the documents are built like the api responses and the leaderboard snapshot build them
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DocumentSerializationBenchmark {
+
+    @Param({"8", "64"})
+    private int teams;
+
+    private int errorCode = 4;
+    private long version = 1234;
+    private List<Map<String, Object>> ranking;
+
+    @Setup
+    public void setup() {
+        this.ranking = new ArrayList<>(this.teams);
+        for (int i = 0; i < this.teams; i++) {
+            Map<String, Object> team = new LinkedHashMap<>();
+            team.put("rank", i + 1);
+            team.put("id", i);
+            team.put("name", "Team " + i);
+            team.put("votes", (this.teams - i) * 37);
+            this.ranking.add(team);
+        }
+    }
+
+    @Benchmark
+    public byte[] errorResponse() {
+        return new DefaultDocument("success", false).append("error", this.errorCode).toJson().getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public byte[] leaderboard() {
+        return new DefaultDocument("version", this.version)
+            .append("timestamp", System.currentTimeMillis())
+            .append("teams", this.ranking)
+            .toJson()
+            .getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,53 @@
+/*
+ * This file is part of election-backend, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) Pasqual Koschmieder <https://github.com/derklaro>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package de.birklehof.election.backend.benchmarks;
+
+import de.birklehof.election.backend.teams.TeamVoteBenchmark;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+// runs the request hot path suites and writes the results as json, to be compared against the results of the last release
+public final class HotPathBenchmarks {
+
+    private HotPathBenchmarks() {
+        throw new UnsupportedOperationException();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        final var resultFile = args.length > 0 ? args[0] : "hot-path-results.json";
+        new Runner(new OptionsBuilder()
+            .include(UserControllerBenchmark.class.getSimpleName())
+            .include(VerificationMailBenchmark.class.getSimpleName())
+            .include(DocumentSerializationBenchmark.class.getSimpleName())
+            .include(TeamVoteBenchmark.class.getSimpleName())
+            .include(QueuedTaskExecutorBenchmark.class.getSimpleName())
+            .resultFormat(ResultFormatType.JSON)
+            .result(resultFile)
+            .build()
+        ).run();
+    }
+}
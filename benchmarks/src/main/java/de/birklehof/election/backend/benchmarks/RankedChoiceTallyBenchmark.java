@@ -0,0 +1,80 @@
+/*
+ * This file is part of election-backend, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) Pasqual Koschmieder <https://github.com/derklaro>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package de.birklehof.election.backend.benchmarks;
+
+import de.birklehof.election.backend.ballot.BallotStore;
+import de.birklehof.election.backend.ballot.RankedChoiceTally;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RankedChoiceTallyBenchmark {
+
+    @Param({"10000", "50000"})
+    private int ballots;
+
+    @Param({"8", "16"})
+    private int candidates;
+
+    private BallotStore.Snapshot snapshot;
+    private boolean[] eligible;
+
+    @Setup
+    public void setup() {
+        final var random = new Random(42);
+        final var store = new BallotStore();
+        final var order = new int[this.candidates];
+        for (int i = 0; i < this.ballots; i++) {
+            for (int candidate = 0; candidate < this.candidates; candidate++) {
+                order[candidate] = candidate;
+            }
+            for (int candidate = this.candidates - 1; candidate > 0; candidate--) {
+                final var swap = random.nextInt(candidate + 1);
+                final var value = order[candidate];
+                order[candidate] = order[swap];
+                order[swap] = value;
+            }
+
+            store.add(Arrays.copyOf(order, 1 + random.nextInt(this.candidates)));
+        }
+
+        this.snapshot = store.snapshot();
+        this.eligible = new boolean[this.candidates];
+        Arrays.fill(this.eligible, true);
+    }
+
+    @Benchmark
+    public RankedChoiceTally.Result compute() {
+        return RankedChoiceTally.compute(this.snapshot, this.eligible);
+    }
+}
@@ -0,0 +1,117 @@
+/*
+ * This file is part of election-backend, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) Pasqual Koschmieder <https://github.com/derklaro>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package de.birklehof.election.backend.benchmarks;
+
+import com.github.derrop.documents.DefaultDocument;
+import de.birklehof.election.backend.rest.EncodedResponse;
+import de.birklehof.election.backend.user.TokenValidateResult;
+import org.jetbrains.annotations.NotNull;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+// compare gc.alloc.rate.norm (bytes allocated per request) of the gc profiler, the main method enables it
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ResponseEncodingBenchmark {
+
+    private static final String OK_JSON = new DefaultDocument("success", true).toJson();
+
+    private final EncodedResponse ok = EncodedResponse.of(new DefaultDocument("success", true));
+    private final EncodedResponse[] validateResults = new EncodedResponse[TokenValidateResult.values().length];
+
+    private TokenValidateResult result;
+    private OutputStream outputStream;
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+            .include(ResponseEncodingBenchmark.class.getSimpleName())
+            .addProfiler(GCProfiler.class)
+            .build()
+        ).run();
+    }
+
+    @Setup
+    public void setup(@NotNull Blackhole blackhole) {
+        for (TokenValidateResult value : TokenValidateResult.values()) {
+            this.validateResults[value.ordinal()] = EncodedResponse.of(new DefaultDocument("status", value.ordinal()));
+        }
+        this.result = TokenValidateResult.ALREADY_USED;
+        this.outputStream = new BlackholeOutputStream(blackhole);
+    }
+
+    @Benchmark
+    public void validateDocumentPerRequest() throws IOException {
+        // what the validate endpoint did before: build the document, serialize it and let the converter encode it
+        this.outputStream.write(new DefaultDocument("status", this.result.ordinal()).toJson().getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Benchmark
+    public void validatePreEncoded() throws IOException {
+        this.outputStream.write(this.validateResults[this.result.ordinal()].getBody());
+    }
+
+    @Benchmark
+    public void constantStringPerRequest() throws IOException {
+        // a constant ResponseEntity<String> is still encoded to bytes on every request
+        this.outputStream.write(OK_JSON.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Benchmark
+    public void constantPreEncoded() throws IOException {
+        this.outputStream.write(this.ok.getBody());
+    }
+
+    private static final class BlackholeOutputStream extends OutputStream {
+
+        private final Blackhole blackhole;
+
+        private BlackholeOutputStream(Blackhole blackhole) {
+            this.blackhole = blackhole;
+        }
+
+        @Override
+        public void write(int b) {
+            this.blackhole.consume(b);
+        }
+
+        @Override
+        public void write(@NotNull byte[] bytes, int offset, int length) {
+            this.blackhole.consume(bytes);
+        }
+    }
+}
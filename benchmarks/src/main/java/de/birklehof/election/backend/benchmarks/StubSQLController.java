@@ -0,0 +1,65 @@
+/*
+ * This file is part of election-backend, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) Pasqual Koschmieder <https://github.com/derklaro>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package de.birklehof.election.backend.benchmarks;
+
+import de.birklehof.election.backend.sql.MySQLController;
+import de.birklehof.election.backend.sql.SQLConsumer;
+import de.birklehof.election.backend.sql.SQLFunction;
+import org.jetbrains.annotations.NotNull;
+
+import java.lang.reflect.Proxy;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+// runs the statement modifiers against a no-op statement, queries never find a row
+public class StubSQLController implements MySQLController {
+
+    private static final PreparedStatement STATEMENT = (PreparedStatement) Proxy.newProxyInstance(
+        StubSQLController.class.getClassLoader(),
+        new Class<?>[]{PreparedStatement.class},
+        (proxy, method, args) -> null
+    );
+
+    @Override
+    public boolean executeUpdate(@NotNull String statement, @NotNull SQLConsumer modifier) {
+        try {
+            modifier.accept(STATEMENT);
+            return true;
+        } catch (SQLException exception) {
+            exception.printStackTrace();
+            return false;
+        }
+    }
+
+    @Override
+    public <T> T executeQuery(@NotNull String query, @NotNull SQLConsumer modifier, @NotNull SQLFunction<T> mapper, T defaultValue) {
+        try {
+            modifier.accept(STATEMENT);
+        } catch (SQLException exception) {
+            exception.printStackTrace();
+        }
+        return defaultValue;
+    }
+}
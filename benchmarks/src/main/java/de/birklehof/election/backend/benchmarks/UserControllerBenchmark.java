@@ -0,0 +1,89 @@
+/*
+ * This file is part of election-backend, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) Pasqual Koschmieder <https://github.com/derklaro>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package de.birklehof.election.backend.benchmarks;
+
+import de.birklehof.election.backend.election.ElectionTables;
+import de.birklehof.election.backend.user.Hashes;
+import de.birklehof.election.backend.user.SQLUserController;
+import de.birklehof.election.backend.user.TokenValidateResult;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// the database is stubbed, every lookup measured here is answered by the token and vote caches
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UserControllerBenchmark {
+
+    @Param({"100", "2000"})
+    private int users;
+
+    private SQLUserController userController;
+    private String[] tokens;
+
+    @Setup
+    public void setup() {
+        this.userController = new SQLUserController(new StubSQLController(), new ElectionTables(ElectionTables.DEFAULT_ELECTION));
+        this.tokens = new String[this.users];
+        for (int i = 0; i < this.users; i++) {
+            final var userId = Hashes.sha256("firstname" + i + ".lastname.abi@s.birklehof.de");
+            this.tokens[i] = this.userController.generateToken(userId).orElseThrow();
+            // half of the users already voted, the other half hits the primary on every hasVoted call
+            if (i % 2 == 0) {
+                this.userController.setHasVoted(this.tokens[i]);
+            }
+        }
+    }
+
+    @Benchmark
+    public String hashToken() {
+        return Hashes.sha256(this.randomToken());
+    }
+
+    @Benchmark
+    public boolean hasVoted() {
+        return this.userController.hasVoted(this.randomToken());
+    }
+
+    @Benchmark
+    public TokenValidateResult validateToken() {
+        // resolving the user of a token scans the token cache, this grows with the number of users
+        return this.userController.validateToken(this.randomToken());
+    }
+
+    @Benchmark
+    public TokenValidateResult validateUnknownToken() {
+        return this.userController.validateToken("unknown");
+    }
+
+    private String randomToken() {
+        return this.tokens[ThreadLocalRandom.current().nextInt(this.tokens.length)];
+    }
+}
@@ -0,0 +1,63 @@
+/*
+ * This file is part of election-backend, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) Pasqual Koschmieder <https://github.com/derklaro>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package de.birklehof.election.backend.benchmarks;
+
+import de.birklehof.election.backend.mail.VerificationMail;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class VerificationMailBenchmark {
+
+    private String validAddress = "Charlotte.Mustermann.abi21@s.birklehof.de";
+    private String foreignAddress = "charlotte.mustermann@gmail.com";
+    private String shortAddress = "charlotte@s.birklehof.de";
+
+    @Benchmark
+    public boolean validateAddress() {
+        return VerificationMail.validateEmailAddress(this.validAddress);
+    }
+
+    @Benchmark
+    public boolean validateForeignAddress() {
+        return VerificationMail.validateEmailAddress(this.foreignAddress);
+    }
+
+    @Benchmark
+    public boolean validateShortAddress() {
+        return VerificationMail.validateEmailAddress(this.shortAddress);
+    }
+
+    @Benchmark
+    public String parseFirstName() {
+        return VerificationMail.parseFirstNameFromEmail(this.validAddress);
+    }
+}
@@ -0,0 +1,107 @@
+/*
+ * This file is part of election-backend, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) Pasqual Koschmieder <https://github.com/derklaro>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package de.birklehof.election.backend.teams;
+
+import de.birklehof.election.backend.benchmarks.StubSQLController;
+import de.birklehof.election.backend.election.ElectionTables;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// lives in the teams package, the tally, the leaderboard and the ledger fold are not part of the public api
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TeamVoteBenchmark {
+
+    private static final int CAPACITY = 64;
+    private static final int BATCH_SIZE = 10_000;
+
+    @Param({"8", "64"})
+    private int teamCount;
+
+    private Team[] teams;
+    private TeamTally tally;
+    private Leaderboard leaderboard;
+    private BallotLedger ballotLedger;
+    private List<long[]> batch;
+
+    @Setup
+    public void setup() {
+        this.teams = new Team[CAPACITY];
+        this.tally = new TeamTally(CAPACITY);
+        this.leaderboard = new Leaderboard(1000, CAPACITY, teamId -> this.teams[teamId]);
+        this.ballotLedger = new BallotLedger(
+            new StubSQLController(),
+            new ElectionTables(ElectionTables.DEFAULT_ELECTION),
+            this.tally,
+            this.leaderboard,
+            teamId -> this.teams[teamId]
+        );
+        for (int teamId = 0; teamId < this.teamCount; teamId++) {
+            this.teams[teamId] = new SQLTeam(teamId, "Team " + teamId, this.tally, this.ballotLedger);
+        }
+
+        // a contiguous batch, folding it again starts over at the first sequence number without leaving a gap
+        this.batch = new ArrayList<>(BATCH_SIZE);
+        for (int seq = 1; seq <= BATCH_SIZE; seq++) {
+            this.batch.add(new long[]{seq, ThreadLocalRandom.current().nextInt(this.teamCount)});
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void countVoteSingleThread() {
+        this.countVote();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public void countVoteContended() {
+        this.countVote();
+    }
+
+    // the aggregator is the only writer of the tally, one invocation folds a full batch of ballots
+    @Benchmark
+    @Threads(1)
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public long foldBatch() {
+        this.ballotLedger.fold(this.batch, new long[CAPACITY], System.currentTimeMillis());
+        return this.tally.get(0);
+    }
+
+    private void countVote() {
+        final var teamId = ThreadLocalRandom.current().nextInt(this.teamCount);
+        this.tally.add(teamId, 1);
+        this.leaderboard.markChanged(teamId);
+    }
+}
@@ -0,0 +1,53 @@
+/*
+ * This file is part of election-backend, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) Pasqual Koschmieder <https://github.com/derklaro>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package de.birklehof.election.backend.simulator;
+
+public enum ArrivalCurve {
+
+    // the students arrive evenly spread over the arrival window
+    UNIFORM {
+        @Override
+        public double offset(double quantile) {
+            return quantile;
+        }
+    },
+    // more and more students arrive as the word spreads
+    RAMP {
+        @Override
+        public double offset(double quantile) {
+            return Math.sqrt(quantile);
+        }
+    },
+    // most students arrive right after the announcement, then it fades out
+    BURST {
+        @Override
+        public double offset(double quantile) {
+            return 1 - Math.sqrt(1 - quantile);
+        }
+    };
+
+    // maps the quantile of a student to the fraction of the arrival window at which the student arrives
+    public abstract double offset(double quantile);
+}
@@ -0,0 +1,293 @@
+/*
+ * This file is part of election-backend, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) Pasqual Koschmieder <https://github.com/derklaro>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package de.birklehof.election.backend.simulator;
+
+import com.github.derrop.documents.DefaultDocument;
+import de.birklehof.election.backend.BackendApplication;
+import de.birklehof.election.backend.election.ElectionManager;
+import de.birklehof.election.backend.fault.FaultInjectingMailService;
+import de.birklehof.election.backend.mail.LocalMailService;
+import de.birklehof.election.backend.mail.MailService;
+import de.birklehof.election.backend.server.WebServerMode;
+import de.birklehof.election.backend.teams.Team;
+import de.birklehof.election.backend.teams.TeamController;
+import org.jetbrains.annotations.NotNull;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+
+// starts the backend in this process with the embedded storage and the local mail transport and runs the students through the real http api
+public class LoadSimulator {
+
+    private static final Pattern TOKEN_PATTERN = Pattern.compile("token=([^&\"]+)");
+    private static final Pattern SUCCESS_PATTERN = Pattern.compile("\"success\"\\s*:\\s*true");
+    private static final Pattern VALID_TOKEN_PATTERN = Pattern.compile("\"status\"\\s*:\\s*0\\D");
+    private static final long TALLY_TIMEOUT = TimeUnit.SECONDS.toNanos(10);
+
+    private final SimulationSettings settings;
+    private final LocalMailService mailService;
+    private final TeamController teamController;
+    private final HttpClient httpClient;
+    private final URI baseUri;
+    private final int[] teamIds;
+    private final AtomicIntegerArray admittedVotes;
+    private final LongAdder failedStudents = new LongAdder();
+
+    private final StepStatistics startDelay = new StepStatistics("start delay");
+    private final StepStatistics requestToken = new StepStatistics("request token");
+    private final StepStatistics duplicateRequest = new StepStatistics("duplicate token");
+    private final StepStatistics validate = new StepStatistics("validate");
+    private final StepStatistics vote = new StepStatistics("vote");
+    private final StepStatistics doubleVote = new StepStatistics("double vote");
+    private final StepStatistics invalidToken = new StepStatistics("invalid token");
+
+    private LoadSimulator(@NotNull SimulationSettings settings, @NotNull ConfigurableApplicationContext context) {
+        this.settings = settings;
+        final var mailService = context.getBean(MailService.class);
+        this.mailService = (LocalMailService) (mailService instanceof FaultInjectingMailService ? ((FaultInjectingMailService) mailService).getDelegate() : mailService);
+        this.teamController = context.getBean(ElectionManager.class).getDefaultElection().getTeamController();
+        this.httpClient = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+        this.baseUri = URI.create("http://127.0.0.1:" + settings.getPort());
+        this.teamIds = new int[settings.getTeams()];
+        this.admittedVotes = new AtomicIntegerArray(settings.getTeams());
+    }
+
+    public static void main(String[] args) throws Exception {
+        final var settings = SimulationSettings.fromProperties();
+        System.out.println("Simulating " + settings);
+
+        final var context = startBackend(settings);
+        var correct = false;
+        try {
+            correct = new LoadSimulator(settings, context).run();
+        } finally {
+            context.close();
+        }
+
+        System.exit(correct ? 0 : 1);
+    }
+
+    @NotNull
+    private static ConfigurableApplicationContext startBackend(@NotNull SimulationSettings settings) throws IOException {
+        // only the overridden values are written, everything else keeps the defaults of the server configuration
+        final var configFile = Files.createTempFile("election-simulation", ".json");
+        configFile.toFile().deleteOnExit();
+        Files.writeString(configFile, new DefaultDocument("storageType", "EMBEDDED")
+            .append("embeddedDatabaseFile", "")
+            .append("mailTransport", "LOCAL")
+            .append("webServerHost", "127.0.0.1")
+            .append("webServerPort", settings.getPort())
+            // every simulated student shares the loopback address
+            .append("rateLimitEnabled", false)
+            // the faults command of the console can slow down sql and mail while the simulation runs
+            .append("faultInjectionEnabled", Boolean.getBoolean("simulation.fault-injection"))
+            .toJson());
+        System.setProperty("config-file", configFile.toString());
+
+        final var application = new SpringApplication(BackendApplication.class);
+        application.setWebApplicationType(WebServerMode.fromProperty().getWebApplicationType());
+        return application.run();
+    }
+
+    private boolean run() throws InterruptedException {
+        for (int i = 0; i < this.teamIds.length; i++) {
+            this.teamIds[i] = this.teamController.registerTeam("Simulated Team " + i).getId();
+        }
+
+        final var random = new Random(this.settings.getSeed());
+        final var arrivals = Executors.newSingleThreadScheduledExecutor();
+        final var clients = Executors.newFixedThreadPool(this.settings.getConcurrency());
+        final var finished = new CountDownLatch(this.settings.getStudents());
+        final var arrivalWindow = TimeUnit.SECONDS.toNanos(this.settings.getArrivalSeconds());
+
+        final var start = System.nanoTime();
+        for (int i = 0; i < this.settings.getStudents(); i++) {
+            final var student = new Student(
+                "student" + i + ".simulation.abi@s.birklehof.de",
+                random.nextInt(this.teamIds.length),
+                random.nextDouble() < this.settings.getDuplicateRequestRate(),
+                random.nextDouble() < this.settings.getDoubleVoteRate(),
+                random.nextDouble() < this.settings.getInvalidTokenRate()
+            );
+            final var arrival = (long) (this.settings.getArrivalCurve().offset((i + 0.5D) / this.settings.getStudents()) * arrivalWindow);
+            arrivals.schedule(() -> clients.execute(() -> {
+                // the time a student waited for a free client, a saturated client pool hides latency otherwise
+                this.startDelay.record(System.nanoTime() - start - arrival, true);
+                try {
+                    this.simulate(student);
+                } catch (Exception exception) {
+                    this.failedStudents.increment();
+                    exception.printStackTrace();
+                } finally {
+                    finished.countDown();
+                }
+            }), arrival, TimeUnit.NANOSECONDS);
+        }
+
+        finished.await();
+        final var duration = System.nanoTime() - start;
+        arrivals.shutdown();
+        clients.shutdown();
+
+        return this.report(duration);
+    }
+
+    private void simulate(@NotNull Student student) throws IOException, InterruptedException {
+        this.post(this.requestToken, SUCCESS_PATTERN.asPredicate(), "/api/v1/requestToken", "email", student.email);
+        if (student.duplicateRequest) {
+            this.post(this.duplicateRequest, error(4), "/api/v1/requestToken", "email", student.email);
+        }
+
+        final var message = this.mailService.getLastMessage(student.email);
+        final var matcher = message == null ? null : TOKEN_PATTERN.matcher(message);
+        if (matcher == null || !matcher.find()) {
+            throw new IllegalStateException("No verification mail was sent to " + student.email);
+        }
+
+        // clicking the link in the mail opens the voting page, which validates the token first
+        final var token = matcher.group(1);
+        this.post(this.validate, VALID_TOKEN_PATTERN.asPredicate(), "/api/v1/validate", "token", token);
+
+        final var teamId = Integer.toString(this.teamIds[student.team]);
+        if (this.post(this.vote, SUCCESS_PATTERN.asPredicate(), "/api/v1/vote", "token", token, "votedTeamId", teamId)) {
+            this.admittedVotes.incrementAndGet(student.team);
+        }
+        if (student.doubleVote) {
+            this.post(this.doubleVote, error(1), "/api/v1/vote", "token", token, "votedTeamId", teamId);
+        }
+        if (student.invalidToken) {
+            final var invalid = UUID.randomUUID().toString().replace("-", "");
+            this.post(this.invalidToken, error(6), "/api/v1/vote", "token", invalid, "votedTeamId", teamId);
+        }
+    }
+
+    private boolean post(@NotNull StepStatistics statistics, @NotNull Predicate<String> expectation, @NotNull String path,
+                         @NotNull String... headers) throws IOException, InterruptedException {
+        final var request = HttpRequest.newBuilder(this.baseUri.resolve(path))
+            .timeout(Duration.ofSeconds(30))
+            .headers(headers)
+            .POST(HttpRequest.BodyPublishers.noBody())
+            .build();
+
+        final var start = System.nanoTime();
+        final var response = this.httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+        final var expected = response.statusCode() == 200 && expectation.test(response.body());
+        statistics.record(System.nanoTime() - start, expected);
+        return expected;
+    }
+
+    @NotNull
+    private static Predicate<String> error(int errorCode) {
+        final var pattern = Pattern.compile("\"error\"\\s*:\\s*" + errorCode + "\\D");
+        return body -> pattern.matcher(body).find();
+    }
+
+    private boolean report(long duration) throws InterruptedException {
+        final var steps = new StepStatistics[]{
+            this.startDelay, this.requestToken, this.duplicateRequest, this.validate, this.vote, this.doubleVote, this.invalidToken
+        };
+
+        System.out.println();
+        System.out.println(String.format("Finished after %.1fs", duration / 1_000_000_000D));
+        System.out.println(String.format(
+            "%-16s %8s %10s %9s %9s %9s %9s %10s",
+            "step", "requests", "req/s", "p50 ms", "p90 ms", "p99 ms", "max ms", "unexpected"
+        ));
+
+        var correct = this.failedStudents.sum() == 0;
+        for (StepStatistics step : steps) {
+            System.out.println(step.format(duration));
+            correct &= step.getUnexpectedResponses() == 0;
+        }
+
+        // the ballots are folded into the tally asynchronously, give the aggregator some time
+        final var deadline = System.nanoTime() + TALLY_TIMEOUT;
+        var tallyMatches = this.tallyMatches();
+        while (!tallyMatches && System.nanoTime() < deadline) {
+            Thread.sleep(100);
+            tallyMatches = this.tallyMatches();
+        }
+
+        System.out.println();
+        for (int i = 0; i < this.teamIds.length; i++) {
+            System.out.println("Team " + this.teamIds[i] + ": " + this.admittedVotes.get(i) + " admitted votes, tally " + this.tallyOf(i));
+        }
+        System.out.println("Verification mails: " + this.mailService.getMessageCount() + " of " + this.settings.getStudents());
+        System.out.println("Failed students: " + this.failedStudents.sum());
+
+        correct &= tallyMatches && this.mailService.getMessageCount() == this.settings.getStudents();
+        System.out.println(correct ? "Result: correct" : "Result: INCORRECT");
+        return correct;
+    }
+
+    private boolean tallyMatches() {
+        for (int i = 0; i < this.teamIds.length; i++) {
+            if (this.tallyOf(i) != this.admittedVotes.get(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int tallyOf(int team) {
+        return this.teamController.getTeamById(this.teamIds[team]).map(Team::getVotes).orElse(-1);
+    }
+
+    private static final class Student {
+
+        private final String email;
+        private final int team;
+        private final boolean duplicateRequest;
+        private final boolean doubleVote;
+        private final boolean invalidToken;
+
+        private Student(String email, int team, boolean duplicateRequest, boolean doubleVote, boolean invalidToken) {
+            this.email = email;
+            this.team = team;
+            this.duplicateRequest = duplicateRequest;
+            this.doubleVote = doubleVote;
+            this.invalidToken = invalidToken;
+        }
+    }
+}
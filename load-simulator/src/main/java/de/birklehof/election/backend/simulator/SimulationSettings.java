@@ -0,0 +1,115 @@
+/*
+ * This file is part of election-backend, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) Pasqual Koschmieder <https://github.com/derklaro>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package de.birklehof.election.backend.simulator;
+
+import org.jetbrains.annotations.NotNull;
+
+// all settings are read from system properties, for example -Dsimulation.students=2000
+public class SimulationSettings {
+
+    private final int students;
+    private final int arrivalSeconds;
+    private final ArrivalCurve arrivalCurve;
+    private final int concurrency;
+    private final int teams;
+    private final int port;
+    private final double duplicateRequestRate;
+    private final double doubleVoteRate;
+    private final double invalidTokenRate;
+    private final long seed;
+
+    private SimulationSettings() {
+        this.students = Integer.getInteger("simulation.students", 2000);
+        this.arrivalSeconds = Integer.getInteger("simulation.arrival-seconds", 180);
+        this.arrivalCurve = ArrivalCurve.valueOf(System.getProperty("simulation.arrival-curve", ArrivalCurve.BURST.name()).toUpperCase());
+        this.concurrency = Integer.getInteger("simulation.concurrency", 200);
+        this.teams = Integer.getInteger("simulation.teams", 8);
+        this.port = Integer.getInteger("simulation.port", 18080);
+        this.duplicateRequestRate = readRate("simulation.duplicate-request-rate", 0.1);
+        this.doubleVoteRate = readRate("simulation.double-vote-rate", 0.05);
+        this.invalidTokenRate = readRate("simulation.invalid-token-rate", 0.05);
+        this.seed = Long.getLong("simulation.seed", 42L);
+    }
+
+    @NotNull
+    public static SimulationSettings fromProperties() {
+        return new SimulationSettings();
+    }
+
+    private static double readRate(@NotNull String property, double defaultValue) {
+        final var rate = Double.parseDouble(System.getProperty(property, Double.toString(defaultValue)));
+        if (rate < 0 || rate > 1) {
+            throw new IllegalArgumentException(property + " has to be between 0 and 1");
+        }
+        return rate;
+    }
+
+    public int getStudents() {
+        return this.students;
+    }
+
+    public int getArrivalSeconds() {
+        return this.arrivalSeconds;
+    }
+
+    public ArrivalCurve getArrivalCurve() {
+        return this.arrivalCurve;
+    }
+
+    public int getConcurrency() {
+        return this.concurrency;
+    }
+
+    public int getTeams() {
+        return this.teams;
+    }
+
+    public int getPort() {
+        return this.port;
+    }
+
+    public double getDuplicateRequestRate() {
+        return this.duplicateRequestRate;
+    }
+
+    public double getDoubleVoteRate() {
+        return this.doubleVoteRate;
+    }
+
+    public double getInvalidTokenRate() {
+        return this.invalidTokenRate;
+    }
+
+    public long getSeed() {
+        return this.seed;
+    }
+
+    @Override
+    public String toString() {
+        return this.students + " students arriving within " + this.arrivalSeconds + "s (" + this.arrivalCurve.name().toLowerCase() + "), "
+            + this.concurrency + " concurrent clients, " + this.teams + " teams, duplicate token requests " + this.duplicateRequestRate
+            + ", double votes " + this.doubleVoteRate + ", invalid tokens " + this.invalidTokenRate;
+    }
+}
@@ -0,0 +1,75 @@
+/*
+ * This file is part of election-backend, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) Pasqual Koschmieder <https://github.com/derklaro>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package de.birklehof.election.backend.simulator;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+public class StepStatistics {
+
+    private final String name;
+    private final Recorder latencies = new Recorder(3);
+    private final LongAdder unexpectedResponses = new LongAdder();
+    private Histogram histogram;
+
+    public StepStatistics(@NotNull String name) {
+        this.name = name;
+    }
+
+    public void record(long latencyNanos, boolean expected) {
+        this.latencies.recordValue(TimeUnit.NANOSECONDS.toMicros(latencyNanos));
+        if (!expected) {
+            this.unexpectedResponses.increment();
+        }
+    }
+
+    public long getUnexpectedResponses() {
+        return this.unexpectedResponses.sum();
+    }
+
+    @NotNull
+    public String format(long durationNanos) {
+        if (this.histogram == null) {
+            this.histogram = this.latencies.getIntervalHistogram();
+        }
+
+        final var count = this.histogram.getTotalCount();
+        return String.format(
+            "%-16s %8d %10.1f %9.2f %9.2f %9.2f %9.2f %10d",
+            this.name,
+            count,
+            count / (durationNanos / 1_000_000_000D),
+            this.histogram.getValueAtPercentile(50) / 1000D,
+            this.histogram.getValueAtPercentile(90) / 1000D,
+            this.histogram.getValueAtPercentile(99) / 1000D,
+            this.histogram.getMaxValue() / 1000D,
+            this.getUnexpectedResponses()
+        );
+    }
+}
@@ -24,6 +24,7 @@
  */
 package de.birklehof.election.backend;
 
+import de.birklehof.election.backend.server.WebServerMode;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 
@@ -34,6 +35,7 @@ public class BackendApplication {
 
     public static void main(String[] args) {
         SpringApplication springApplication = new SpringApplication(BackendApplication.class);
+        springApplication.setWebApplicationType(WebServerMode.fromProperty().getWebApplicationType());
         springApplication.setDefaultProperties(Map.of(
                 // logging
                 "logging.group.tomcat", "org.apache.catalina, org.apache.coyote, org.apache.tomcat",
@@ -36,8 +36,9 @@ public class BackendServer {
     public void installShutdownHook(ServerLogger logger, DefaultConsole console) {
         Runtime.getRuntime().addShutdownHook(new Thread(() -> {
             try {
-                console.close();
+                // the last console frame is written when the logger is closed
                 logger.close();
+                console.close();
             } catch (Exception exception) {
                 exception.printStackTrace();
             }
@@ -25,19 +25,26 @@
 package de.birklehof.election.backend.api;
 
 import org.jetbrains.annotations.NotNull;
-import org.springframework.http.ResponseEntity;
+import org.jetbrains.annotations.Nullable;
 
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
 
 public interface ApiController {
 
-    @NotNull
-    ResponseEntity<String> handleTokenRequest(@NotNull HttpServletRequest request, @NotNull HttpServletResponse response, @NotNull String email);
+    void handleTokenRequest(@NotNull HttpServletRequest request, @NotNull HttpServletResponse response, @NotNull String email, @Nullable String election) throws IOException;
 
-    @NotNull
-    ResponseEntity<String> vote(@NotNull HttpServletRequest request, @NotNull String token, @NotNull String votedTeam);
+    void vote(@NotNull HttpServletRequest request, @NotNull HttpServletResponse response, @NotNull String token, @Nullable String votedTeam, @Nullable Integer votedTeamId,
+              @Nullable String election) throws IOException;
 
-    @NotNull
-    ResponseEntity<String> validateToken(@NotNull HttpServletRequest request, @NotNull String token);
+    void voteBallot(@NotNull HttpServletRequest request, @NotNull HttpServletResponse response, @NotNull String token, @NotNull String choices, @Nullable String election) throws IOException;
+
+    void validateToken(@NotNull HttpServletRequest request, @NotNull HttpServletResponse response, @NotNull String token, @Nullable String election) throws IOException;
+
+    void results(@NotNull HttpServletRequest request, @NotNull HttpServletResponse response, @Nullable String election) throws IOException;
+
+    void resultStream(@NotNull HttpServletRequest request, @NotNull HttpServletResponse response, @Nullable String election) throws IOException;
+
+    void ballotResults(@NotNull HttpServletRequest request, @NotNull HttpServletResponse response, @Nullable String election) throws IOException;
 }
@@ -0,0 +1,281 @@
+/*
+ * This file is part of election-backend, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) Pasqual Koschmieder <https://github.com/derklaro>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package de.birklehof.election.backend.ballot;
+
+import com.github.derrop.documents.DefaultDocument;
+import de.birklehof.election.backend.config.ServerConfiguration;
+import de.birklehof.election.backend.election.ElectionTables;
+import de.birklehof.election.backend.sql.MySQLController;
+import de.birklehof.election.backend.teams.SQLTeamController;
+import de.birklehof.election.backend.teams.Team;
+import de.birklehof.election.backend.teams.TeamController;
+import org.jetbrains.annotations.NotNull;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.stream.Collectors;
+
+public class BallotEngine {
+
+    private static final int MAX_REPORTED_CORRUPT_BALLOTS = 16;
+
+    private final MySQLController sqlController;
+    private final String ballotsTable;
+    private final TeamController teamController;
+    private final BallotMode mode;
+    private final int maxSelections;
+    private final int maxTeams;
+    // team ids are below maxTeamIds, deleted teams leave unused ids behind
+    private final int capacity;
+    private final long rebuildInterval;
+
+    private final BallotStore ballotStore = new BallotStore();
+    // first preferences for ranked choice ballots, every selection for multi selection ballots
+    private final AtomicLongArray counts;
+
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+    private volatile CachedResult cachedResult;
+    private volatile long lastRebuildCheck;
+
+    public BallotEngine(MySQLController sqlController, ElectionTables tables, SQLTeamController teamController, ServerConfiguration configuration) {
+        this.sqlController = sqlController;
+        this.ballotsTable = tables.get("ranked_ballots");
+        this.teamController = teamController;
+        this.mode = configuration.getBallotMode();
+        this.maxSelections = configuration.getMaxSelections();
+        this.maxTeams = configuration.getMaxTeams();
+        this.capacity = configuration.getMaxTeamIds();
+        this.rebuildInterval = configuration.getBallotResultRebuildInterval();
+        this.counts = new AtomicLongArray(this.capacity);
+
+        // a ballot lists up to maxTeams ids, a fixed length column would silently cap the number of teams
+        this.sqlController.executeUpdate(
+            "CREATE TABLE IF NOT EXISTS `" + this.ballotsTable + "` (`seq` BIGINT AUTO_INCREMENT PRIMARY KEY, `ballot` CHAR(32) UNIQUE, `choices` TEXT)",
+            statement -> {
+            }
+        );
+        // loaded from the primary, a lagging replica would miss recent ballots for the rest of the run
+        final int skippedBallots = this.sqlController.executePrimaryQuery(
+            "SELECT `seq`, `choices` FROM `" + this.ballotsTable + "` ORDER BY `seq`",
+            statement -> {
+            }, resultSet -> {
+                var skipped = 0;
+                while (resultSet.next()) {
+                    var choices = resultSet.getString("choices");
+                    try {
+                        this.store(parseChoices(choices == null ? "" : choices));
+                    } catch (NumberFormatException exception) {
+                        // one damaged row must not keep the whole election from starting
+                        if (skipped++ < MAX_REPORTED_CORRUPT_BALLOTS) {
+                            System.err.println("Skipping corrupt ballot " + resultSet.getLong("seq") + " in " + this.ballotsTable + ": " + choices);
+                        }
+                    }
+                }
+                return skipped;
+            }, 0
+        );
+        if (skippedBallots > 0) {
+            System.err.println("Skipped " + skippedBallots + " corrupt ballots in " + this.ballotsTable + ", they are not counted");
+        }
+        this.cachedResult = this.computeResult(this.eligibleTeams());
+        this.lastRebuildCheck = System.currentTimeMillis();
+    }
+
+    @NotNull
+    public static int[] parseChoices(@NotNull String choices) {
+        if (choices.isBlank()) {
+            return new int[0];
+        }
+
+        var parts = choices.split(",");
+        var result = new int[parts.length];
+        for (int i = 0; i < parts.length; i++) {
+            result[i] = Integer.parseInt(parts[i].trim());
+        }
+        return result;
+    }
+
+    // false for an invalid ballot or if the ballot could not be stored
+    public boolean cast(@NotNull int[] choices) {
+        if (!this.isValid(choices)) {
+            return false;
+        }
+
+        final var ballotId = UUID.randomUUID().toString().replace("-", "");
+        final var serializedChoices = Arrays.stream(choices).mapToObj(Integer::toString).collect(Collectors.joining(","));
+        final var stored = this.sqlController.executeUpdate(
+            "INSERT INTO `" + this.ballotsTable + "` (`ballot`, `choices`) VALUES (?, ?)",
+            statement -> {
+                statement.setString(1, ballotId);
+                statement.setString(2, serializedChoices);
+            }
+        );
+        if (stored) {
+            this.store(choices);
+        }
+        return stored;
+    }
+
+    @NotNull
+    public BallotMode getMode() {
+        return this.mode;
+    }
+
+    @NotNull
+    public String getResultJson() {
+        return this.result().json;
+    }
+
+    @NotNull
+    public byte[] getResultJsonBytes() {
+        return this.result().jsonBytes;
+    }
+
+    @NotNull
+    private CachedResult result() {
+        // at most one request re-runs the tally per interval, every other request reads the previous result
+        var cachedResult = this.cachedResult;
+        var now = System.currentTimeMillis();
+        if (now - this.lastRebuildCheck >= this.rebuildInterval && this.rebuilding.compareAndSet(false, true)) {
+            try {
+                this.lastRebuildCheck = now;
+                var eligible = this.eligibleTeams();
+                if (cachedResult.ballotCount != this.ballotStore.getBallotCount() || !Arrays.equals(cachedResult.eligible, eligible)) {
+                    cachedResult = this.cachedResult = this.computeResult(eligible);
+                }
+            } finally {
+                this.rebuilding.set(false);
+            }
+        }
+
+        return cachedResult;
+    }
+
+    @NotNull
+    private boolean[] eligibleTeams() {
+        var eligible = new boolean[this.capacity];
+        for (Team team : this.teamController.getRegisteredTeams()) {
+            eligible[team.getId()] = true;
+        }
+        return eligible;
+    }
+
+    @NotNull
+    private CachedResult computeResult(@NotNull boolean[] eligible) {
+        var snapshot = this.ballotStore.snapshot();
+        var document = new DefaultDocument("mode", this.mode.name()).append("ballots", snapshot.getBallotCount());
+        if (this.mode == BallotMode.RANKED_CHOICE) {
+            var result = RankedChoiceTally.compute(snapshot, eligible);
+            List<Map<String, Object>> rounds = new ArrayList<>(result.getRounds().size());
+            for (RankedChoiceTally.Round round : result.getRounds()) {
+                Map<String, Object> serializedRound = new LinkedHashMap<>();
+                serializedRound.put("counts", this.countsByTeam(round.getCounts(), eligible));
+                serializedRound.put("eliminated", round.getEliminated());
+                serializedRound.put("exhausted", round.getExhausted());
+                rounds.add(serializedRound);
+            }
+            document.append("rounds", rounds).append("winner", result.getWinner());
+        } else {
+            var selections = new int[this.capacity];
+            for (int teamId = 0; teamId < this.capacity; teamId++) {
+                selections[teamId] = (int) this.counts.get(teamId);
+            }
+            var elected = MultiSelectionTally.elect(selections, eligible, this.maxSelections);
+            document.append("maxSelections", this.maxSelections).append("counts", this.countsByTeam(selections, eligible)).append("elected", elected);
+        }
+
+        return new CachedResult(snapshot.getBallotCount(), eligible, document.toJson());
+    }
+
+    public boolean isValid(@NotNull int[] choices) {
+        var maxChoices = this.mode == BallotMode.MULTI_SELECTION ? this.maxSelections : this.maxTeams;
+        if (choices.length == 0 || choices.length > maxChoices) {
+            return false;
+        }
+
+        var seen = new boolean[this.capacity];
+        for (int choice : choices) {
+            if (choice < 0 || choice >= this.capacity || seen[choice] || this.teamController.getTeamById(choice).isEmpty()) {
+                return false;
+            }
+            seen[choice] = true;
+        }
+        return true;
+    }
+
+    private void store(@NotNull int[] choices) {
+        if (choices.length == 0) {
+            return;
+        }
+
+        this.ballotStore.add(choices);
+        if (this.mode == BallotMode.RANKED_CHOICE) {
+            this.countChoice(choices[0]);
+        } else {
+            for (int choice : choices) {
+                this.countChoice(choice);
+            }
+        }
+    }
+
+    private void countChoice(int teamId) {
+        if (teamId >= 0 && teamId < this.capacity) {
+            this.counts.getAndIncrement(teamId);
+        }
+    }
+
+    @NotNull
+    private Map<String, Integer> countsByTeam(@NotNull int[] counts, @NotNull boolean[] eligible) {
+        Map<String, Integer> result = new LinkedHashMap<>();
+        for (int teamId = 0; teamId < counts.length; teamId++) {
+            if (eligible[teamId]) {
+                result.put(Integer.toString(teamId), counts[teamId]);
+            }
+        }
+        return result;
+    }
+
+    private static final class CachedResult {
+
+        private final int ballotCount;
+        private final boolean[] eligible;
+        private final String json;
+        private final byte[] jsonBytes;
+
+        private CachedResult(int ballotCount, boolean[] eligible, String json) {
+            this.ballotCount = ballotCount;
+            this.eligible = eligible;
+            this.json = json;
+            this.jsonBytes = json.getBytes(StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,93 @@
+/*
+ * This file is part of election-backend, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) Pasqual Koschmieder <https://github.com/derklaro>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package de.birklehof.election.backend.ballot;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+
+public class BallotStore {
+
+    // all ballots are stored back to back, ballot n uses the choices from offsets[n] (inclusive) to offsets[n + 1] (exclusive)
+    private int[] choices = new int[1024];
+    private int[] offsets = new int[256];
+    private int ballotCount;
+
+    public synchronized void add(@NotNull int[] ballot) {
+        var start = this.offsets[this.ballotCount];
+        if (start + ballot.length > this.choices.length) {
+            this.choices = Arrays.copyOf(this.choices, Math.max(this.choices.length << 1, start + ballot.length));
+        }
+        if (this.ballotCount + 2 > this.offsets.length) {
+            this.offsets = Arrays.copyOf(this.offsets, this.offsets.length << 1);
+        }
+
+        System.arraycopy(ballot, 0, this.choices, start, ballot.length);
+        this.offsets[++this.ballotCount] = start + ballot.length;
+    }
+
+    public synchronized int getBallotCount() {
+        return this.ballotCount;
+    }
+
+    @NotNull
+    public synchronized Snapshot snapshot() {
+        // the arrays are only appended to (or replaced when growing), the snapshot never sees a partially written ballot
+        return new Snapshot(this.choices, this.offsets, this.ballotCount);
+    }
+
+    public static final class Snapshot {
+
+        private final int[] choices;
+        private final int[] offsets;
+        private final int ballotCount;
+
+        private Snapshot(int[] choices, int[] offsets, int ballotCount) {
+            this.choices = choices;
+            this.offsets = offsets;
+            this.ballotCount = ballotCount;
+        }
+
+        public int getBallotCount() {
+            return this.ballotCount;
+        }
+
+        public int getChoiceCount(int ballot) {
+            return this.offsets[ballot + 1] - this.offsets[ballot];
+        }
+
+        public int getChoice(int ballot, int rank) {
+            return this.choices[this.offsets[ballot] + rank];
+        }
+
+        int[] getChoices() {
+            return this.choices;
+        }
+
+        int[] getOffsets() {
+            return this.offsets;
+        }
+    }
+}
@@ -0,0 +1,214 @@
+/*
+ * This file is part of election-backend, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) Pasqual Koschmieder <https://github.com/derklaro>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package de.birklehof.election.backend.ballot;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+public final class RankedChoiceTally {
+
+    private RankedChoiceTally() {
+        throw new UnsupportedOperationException();
+    }
+
+    @NotNull
+    public static Result compute(@NotNull BallotStore.Snapshot ballots, @NotNull boolean[] eligible) {
+        final var candidateCount = eligible.length;
+        final var ballotCount = ballots.getBallotCount();
+        final var choices = ballots.getChoices();
+        final var offsets = ballots.getOffsets();
+
+        final var remaining = eligible.clone();
+        final var positions = new int[ballotCount];
+        final var buckets = new Bucket[candidateCount];
+        for (int candidate = 0; candidate < candidateCount; candidate++) {
+            buckets[candidate] = new Bucket();
+        }
+
+        // every ballot sits in the bucket of the candidate it currently counts for
+        var exhausted = 0;
+        var remainingCandidates = 0;
+        for (boolean candidateRemaining : remaining) {
+            remainingCandidates += candidateRemaining ? 1 : 0;
+        }
+        for (int ballot = 0; ballot < ballotCount; ballot++) {
+            positions[ballot] = offsets[ballot];
+            if (!place(ballot, choices, offsets, positions, remaining, buckets)) {
+                exhausted++;
+            }
+        }
+
+        List<Round> rounds = new ArrayList<>();
+        while (true) {
+            var counts = new int[candidateCount];
+            var activeBallots = 0;
+            var leader = -1;
+            for (int candidate = 0; candidate < candidateCount; candidate++) {
+                if (remaining[candidate]) {
+                    counts[candidate] = buckets[candidate].size;
+                    activeBallots += counts[candidate];
+                    if (leader == -1 || counts[candidate] > counts[leader]) {
+                        leader = candidate;
+                    }
+                }
+            }
+
+            if (leader == -1 || activeBallots == 0) {
+                rounds.add(new Round(counts, -1, exhausted));
+                return new Result(rounds, -1);
+            }
+
+            if (counts[leader] * 2L > activeBallots || remainingCandidates == 1) {
+                rounds.add(new Round(counts, -1, exhausted));
+                return new Result(rounds, leader);
+            }
+
+            var eliminated = selectEliminated(counts, remaining, rounds);
+            rounds.add(new Round(counts, eliminated, exhausted));
+            remaining[eliminated] = false;
+            remainingCandidates--;
+
+            // only the ballots of the eliminated candidate are touched, all others keep their position
+            var bucket = buckets[eliminated];
+            for (int i = 0; i < bucket.size; i++) {
+                var ballot = bucket.ballots[i];
+                positions[ballot]++;
+                if (!place(ballot, choices, offsets, positions, remaining, buckets)) {
+                    exhausted++;
+                }
+            }
+            buckets[eliminated] = new Bucket();
+        }
+    }
+
+    private static boolean place(int ballot, int[] choices, int[] offsets, int[] positions, boolean[] remaining, Bucket[] buckets) {
+        var end = offsets[ballot + 1];
+        for (int position = positions[ballot]; position < end; position++) {
+            var candidate = choices[position];
+            if (candidate >= 0 && candidate < remaining.length && remaining[candidate]) {
+                positions[ballot] = position;
+                buckets[candidate].add(ballot);
+                return true;
+            }
+        }
+
+        positions[ballot] = end;
+        return false;
+    }
+
+    private static int selectEliminated(int[] counts, boolean[] remaining, List<Round> previousRounds) {
+        var eliminated = -1;
+        for (int candidate = 0; candidate < counts.length; candidate++) {
+            if (remaining[candidate] && (eliminated == -1 || isWeaker(candidate, eliminated, counts, previousRounds))) {
+                eliminated = candidate;
+            }
+        }
+
+        return eliminated;
+    }
+
+    private static boolean isWeaker(int candidate, int other, int[] counts, List<Round> previousRounds) {
+        if (counts[candidate] != counts[other]) {
+            return counts[candidate] < counts[other];
+        }
+
+        // ties are broken by the most recent round in which the two candidates had a different count
+        for (int round = previousRounds.size() - 1; round >= 0; round--) {
+            var roundCounts = previousRounds.get(round).counts;
+            if (roundCounts[candidate] != roundCounts[other]) {
+                return roundCounts[candidate] < roundCounts[other];
+            }
+        }
+
+        return candidate > other;
+    }
+
+    public static final class Result {
+
+        private final List<Round> rounds;
+        private final int winner;
+
+        private Result(List<Round> rounds, int winner) {
+            this.rounds = Collections.unmodifiableList(rounds);
+            this.winner = winner;
+        }
+
+        @NotNull
+        public List<Round> getRounds() {
+            return this.rounds;
+        }
+
+        public int getWinner() {
+            return this.winner;
+        }
+    }
+
+    public static final class Round {
+
+        private final int[] counts;
+        private final int eliminated;
+        private final int exhausted;
+
+        private Round(int[] counts, int eliminated, int exhausted) {
+            this.counts = counts;
+            this.eliminated = eliminated;
+            this.exhausted = exhausted;
+        }
+
+        @NotNull
+        public int[] getCounts() {
+            return this.counts.clone();
+        }
+
+        public int getCount(int candidate) {
+            return this.counts[candidate];
+        }
+
+        public int getEliminated() {
+            return this.eliminated;
+        }
+
+        public int getExhausted() {
+            return this.exhausted;
+        }
+    }
+
+    private static final class Bucket {
+
+        private int[] ballots = new int[16];
+        private int size;
+
+        private void add(int ballot) {
+            if (this.size == this.ballots.length) {
+                this.ballots = Arrays.copyOf(this.ballots, this.size << 1);
+            }
+            this.ballots[this.size++] = ballot;
+        }
+    }
+}
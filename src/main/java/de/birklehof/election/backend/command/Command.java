@@ -27,8 +27,17 @@ package de.birklehof.election.backend.command;
 import org.jetbrains.annotations.NonNls;
 import org.jetbrains.annotations.NotNull;
 
+import java.util.Collection;
+import java.util.Collections;
+
 public interface Command {
 
     void process(@NotNull CommandSender sender, @NonNls String[] args, @NotNull String commandLine);
 
+    // candidates for the last argument, the command manager filters them by what was typed so far
+    @NotNull
+    default Collection<String> complete(@NotNull CommandSender sender, @NonNls String[] args) {
+        return Collections.emptyList();
+    }
+
 }
@@ -30,6 +30,7 @@ import org.jetbrains.annotations.UnmodifiableView;
 import org.springframework.stereotype.Component;
 
 import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.function.Predicate;
 
@@ -50,4 +51,7 @@ public interface CommandManager {
 
     boolean process(@NotNull String commandLine, Predicate<CommandContainer> allowedTester, @NotNull CommandSender commandSender);
 
+    @NotNull
+    List<String> complete(@NotNull String commandLine, @NotNull CommandSender commandSender);
+
 }
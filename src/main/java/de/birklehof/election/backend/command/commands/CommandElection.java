@@ -0,0 +1,74 @@
+/*
+ * This file is part of election-backend, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) Pasqual Koschmieder <https://github.com/derklaro>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package de.birklehof.election.backend.command.commands;
+
+import de.birklehof.election.backend.command.Command;
+import de.birklehof.election.backend.command.CommandManager;
+import de.birklehof.election.backend.command.CommandSender;
+import de.birklehof.election.backend.election.Election;
+import de.birklehof.election.backend.election.ElectionManager;
+import de.birklehof.election.backend.election.ElectionTables;
+import org.jetbrains.annotations.NonNls;
+import org.jetbrains.annotations.NotNull;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+@Component
+public class CommandElection implements Command {
+
+    private final ElectionManager electionManager;
+
+    @Autowired
+    public CommandElection(CommandManager commandManager, ElectionManager electionManager) {
+        commandManager.registerCommand(this, "Management of elections", "elections", "election", "e");
+        this.electionManager = electionManager;
+    }
+
+    @Override
+    public void process(@NotNull CommandSender sender, @NonNls String[] args, @NotNull String commandLine) {
+        if (args.length == 1 && args[0].equalsIgnoreCase("list")) {
+            for (Election election : this.electionManager.getElections()) {
+                sender.sendMessage("Election: " + election.getId() + "; Teams: " + election.getTeamController().getRegisteredTeams().size());
+            }
+            return;
+        } else if (args.length == 2 && args[0].equalsIgnoreCase("create")) {
+            if (!ElectionTables.isValidElectionId(args[1])) {
+                sender.sendMessage("Election ids may only contain a-z, 0-9 and _ (at most 32 characters)");
+                return;
+            }
+
+            final var election = this.electionManager.createElection(args[1]);
+            sender.sendMessage("Election " + election.getId() + " was created successfully");
+            return;
+        }
+
+        showHelp(sender);
+    }
+
+    private static void showHelp(CommandSender sender) {
+        sender.sendMessage("elections list");
+        sender.sendMessage("elections create <id>");
+    }
+}
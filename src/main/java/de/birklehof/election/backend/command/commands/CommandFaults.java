@@ -0,0 +1,153 @@
+/*
+ * This file is part of election-backend, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) Pasqual Koschmieder <https://github.com/derklaro>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package de.birklehof.election.backend.command.commands;
+
+import de.birklehof.election.backend.command.Command;
+import de.birklehof.election.backend.command.CommandManager;
+import de.birklehof.election.backend.command.CommandSender;
+import de.birklehof.election.backend.fault.FaultInjection;
+import de.birklehof.election.backend.fault.FaultInjector;
+import de.birklehof.election.backend.fault.FaultProfile;
+import de.birklehof.election.backend.fault.LatencyDistribution;
+import de.birklehof.election.backend.queued.QueuedTaskExecutor;
+import org.jetbrains.annotations.NonNls;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+@Component
+public class CommandFaults implements Command {
+
+    private final FaultInjection faultInjection;
+
+    @Autowired
+    public CommandFaults(CommandManager commandManager, FaultInjection faultInjection) {
+        commandManager.registerCommand(this, "Latency and error injection for sql and mail", "faults", "fault");
+        this.faultInjection = faultInjection;
+    }
+
+    @Override
+    public void process(@NotNull CommandSender sender, @NonNls String[] args, @NotNull String commandLine) {
+        if (!this.faultInjection.isEnabled()) {
+            sender.sendMessage("Fault injection is disabled, set faultInjectionEnabled in the configuration and restart the backend");
+            return;
+        }
+
+        if (args.length == 0 || (args.length == 1 && args[0].equalsIgnoreCase("status"))) {
+            sendStatus(sender, this.faultInjection.getSqlInjector());
+            sendStatus(sender, this.faultInjection.getMailInjector());
+            // the backlog of the election queues shows how the injected latency piles up
+            QueuedTaskExecutor.getQueuedTasks().forEach((partition, size) -> sender.sendMessage("Queued tasks (" + partition + "): " + size));
+            return;
+        } else if (args.length == 1 && args[0].equalsIgnoreCase("reset")) {
+            this.faultInjection.getSqlInjector().setProfile(FaultProfile.NONE);
+            this.faultInjection.getMailInjector().setProfile(FaultProfile.NONE);
+            sender.sendMessage("All faults were removed");
+            return;
+        } else if (args.length >= 2) {
+            final var injector = this.resolveInjector(args[0]);
+            if (injector == null) {
+                sender.sendMessage("Unknown target " + args[0] + ", use sql or mail");
+                return;
+            }
+
+            try {
+                final var profile = applyChange(injector.getProfile(), args);
+                if (profile != null) {
+                    injector.setProfile(profile);
+                    sendStatus(sender, injector);
+                    return;
+                }
+            } catch (IllegalArgumentException exception) {
+                // also thrown for invalid numbers
+                sender.sendMessage("Invalid argument: " + exception.getMessage());
+                return;
+            }
+        }
+
+        showHelp(sender);
+    }
+
+    @Nullable
+    private static FaultProfile applyChange(@NotNull FaultProfile profile, @NotNull String[] args) {
+        switch (args[1].toLowerCase()) {
+            case "reset":
+                return args.length == 2 ? FaultProfile.NONE : null;
+            case "latency":
+                return args.length == 4
+                    ? profile.withLatency(LatencyDistribution.valueOf(args[2].toUpperCase()), parseMillis(args[3]))
+                    : null;
+            case "errors":
+                return args.length == 3 ? profile.withErrorRate(parseRate(args[2])) : null;
+            case "stalls":
+                return args.length == 4 ? profile.withStalls(parseRate(args[2]), parseMillis(args[3])) : null;
+            default:
+                return null;
+        }
+    }
+
+    @Nullable
+    private FaultInjector resolveInjector(@NotNull String target) {
+        switch (target.toLowerCase()) {
+            case "sql":
+                return this.faultInjection.getSqlInjector();
+            case "mail":
+                return this.faultInjection.getMailInjector();
+            default:
+                return null;
+        }
+    }
+
+    private static void sendStatus(@NotNull CommandSender sender, @NotNull FaultInjector injector) {
+        sender.sendMessage(injector.getName() + ": " + injector.getProfile() + " (delayed " + injector.getDelayedCalls()
+            + ", stalled " + injector.getStalledCalls() + ", failed " + injector.getFailedCalls() + ")");
+    }
+
+    private static long parseMillis(@NotNull String input) {
+        final var millis = Long.parseLong(input);
+        if (millis < 0) {
+            throw new IllegalArgumentException("the time has to be positive");
+        }
+        return millis;
+    }
+
+    private static double parseRate(@NotNull String input) {
+        final var rate = Double.parseDouble(input);
+        if (rate < 0 || rate > 1) {
+            throw new IllegalArgumentException("the rate has to be between 0 and 1");
+        }
+        return rate;
+    }
+
+    private static void showHelp(CommandSender sender) {
+        sender.sendMessage("faults status");
+        sender.sendMessage("faults reset");
+        sender.sendMessage("faults <sql|mail> latency <none|fixed|uniform|exponential> <millis>");
+        sender.sendMessage("faults <sql|mail> errors <rate>");
+        sender.sendMessage("faults <sql|mail> stalls <rate> <millis>");
+        sender.sendMessage("faults <sql|mail> reset");
+    }
+}
@@ -0,0 +1,127 @@
+/*
+ * This file is part of election-backend, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) Pasqual Koschmieder <https://github.com/derklaro>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package de.birklehof.election.backend.command.commands;
+
+import de.birklehof.election.backend.command.Command;
+import de.birklehof.election.backend.command.CommandManager;
+import de.birklehof.election.backend.command.CommandSender;
+import de.birklehof.election.backend.jfr.MailSentEvent;
+import de.birklehof.election.backend.jfr.SQLStatementEvent;
+import de.birklehof.election.backend.jfr.TokenRequestEvent;
+import de.birklehof.election.backend.jfr.VoteEvent;
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import org.jetbrains.annotations.NonNls;
+import org.jetbrains.annotations.NotNull;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+@Component
+public class CommandJfr implements Command {
+
+    private static final DateTimeFormatter FILE_NAME_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    private Recording recording;
+    private Path destination;
+
+    @Autowired
+    public CommandJfr(CommandManager commandManager) {
+        commandManager.registerCommand(this, "Flight recordings of the backend", "jfr", "flightrecorder");
+    }
+
+    @Override
+    public synchronized void process(@NotNull CommandSender sender, @NonNls String[] args, @NotNull String commandLine) {
+        if ((args.length == 1 || args.length == 2) && args[0].equalsIgnoreCase("start")) {
+            if (this.recording != null) {
+                sender.sendMessage("A recording to " + this.destination + " is already running");
+                return;
+            }
+
+            final var destination = args.length == 2
+                ? Path.of(args[1])
+                : Path.of("recordings", "election-" + LocalDateTime.now().format(FILE_NAME_FORMAT) + ".jfr");
+            try {
+                final var parent = destination.toAbsolutePath().getParent();
+                if (parent != null) {
+                    Files.createDirectories(parent);
+                }
+
+                // the default settings keep the overhead low enough to record during an election
+                final var recording = new Recording(Configuration.getConfiguration("default"));
+                recording.setName("Birklehof Election");
+                recording.setDestination(destination);
+                recording.enable(VoteEvent.class);
+                recording.enable(TokenRequestEvent.class);
+                recording.enable(SQLStatementEvent.class);
+                recording.enable(MailSentEvent.class);
+                recording.start();
+
+                this.recording = recording;
+                this.destination = destination;
+                sender.sendMessage("Started recording to " + destination);
+            } catch (IOException | ParseException exception) {
+                exception.printStackTrace();
+                sender.sendMessage("Unable to start the recording: " + exception.getMessage());
+            }
+            return;
+        } else if (args.length == 1 && args[0].equalsIgnoreCase("stop")) {
+            if (this.recording == null) {
+                sender.sendMessage("No recording is running");
+                return;
+            }
+
+            // stopping the recording writes it to the destination
+            this.recording.stop();
+            this.recording.close();
+            sender.sendMessage("Recording was written to " + this.destination);
+
+            this.recording = null;
+            this.destination = null;
+            return;
+        } else if (args.length == 1 && args[0].equalsIgnoreCase("status")) {
+            if (this.recording == null) {
+                sender.sendMessage("No recording is running");
+            } else {
+                sender.sendMessage("Recording to " + this.destination + " since " + this.recording.getStartTime());
+            }
+            return;
+        }
+
+        showHelp(sender);
+    }
+
+    private static void showHelp(CommandSender sender) {
+        sender.sendMessage("jfr start [file]");
+        sender.sendMessage("jfr stop");
+        sender.sendMessage("jfr status");
+    }
+}
@@ -27,44 +27,62 @@ package de.birklehof.election.backend.command.commands;
 import de.birklehof.election.backend.command.Command;
 import de.birklehof.election.backend.command.CommandManager;
 import de.birklehof.election.backend.command.CommandSender;
-import de.birklehof.election.backend.teams.SQLTeamController;
+import de.birklehof.election.backend.election.Election;
+import de.birklehof.election.backend.election.ElectionManager;
+import de.birklehof.election.backend.teams.Leaderboard;
 import de.birklehof.election.backend.teams.Team;
 import de.birklehof.election.backend.teams.TeamController;
 import org.jetbrains.annotations.NonNls;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
 @Component
 public class CommandTeam implements Command {
 
-    private final TeamController teamController;
+    private static final List<String> SUB_COMMANDS = List.of("list", "create", "delete", "votes");
+
+    private final ElectionManager electionManager;
 
     @Autowired
-    public CommandTeam(CommandManager commandManager, SQLTeamController teamController) {
+    public CommandTeam(CommandManager commandManager, ElectionManager electionManager) {
         commandManager.registerCommand(this, "Management of teams", "teams", "team", "t");
-        this.teamController = teamController;
+        this.electionManager = electionManager;
     }
 
     @Override
     public void process(@NotNull CommandSender sender, @NonNls String[] args, @NotNull String commandLine) {
-        if (args.length == 1 && args[0].equalsIgnoreCase("list")) {
-            for (Team registeredTeam : this.teamController.getRegisteredTeams()) {
-                sender.sendMessage("Team: " + registeredTeam.getName() + "; Votes: " + registeredTeam.getVotes());
+        if ((args.length == 1 || args.length == 2) && args[0].equalsIgnoreCase("list")) {
+            final var teamController = this.resolveTeamController(sender, args, 2);
+            if (teamController != null) {
+                for (Leaderboard.Entry entry : teamController.getLeaderboard().getSnapshot().getRanking()) {
+                    sender.sendMessage("#" + entry.getRank() + " Team: " + entry.getName() + " (id " + entry.getId() + "); Votes: " + entry.getVotes());
+                }
             }
             return;
-        } else if (args.length == 2) {
+        } else if (args.length == 2 || args.length == 3) {
+            final var teamController = this.resolveTeamController(sender, args, 3);
+            if (teamController == null) {
+                return;
+            }
+
             switch (args[0].toLowerCase()) {
                 case "create":
-                    final var team = this.teamController.registerTeam(args[1]);
-                    sender.sendMessage("Team " + team.getName() + " was registered successfully");
+                    final var team = teamController.registerTeam(args[1]);
+                    sender.sendMessage("Team " + team.getName() + " was registered successfully with id " + team.getId());
                     return;
                 case "delete":
-                    this.teamController.deleteTeam(args[1]);
+                    teamController.deleteTeam(args[1]);
                     sender.sendMessage("Team " + args[1] + " was deleted successfully");
                     return;
                 case "votes":
-                    this.teamController.getTeamByName(args[1]).ifPresentOrElse(
+                    teamController.getTeamByName(args[1]).ifPresentOrElse(
                         t -> sender.sendMessage("Team " + t.getName() + " has " + t.getVotes() + " votes"),
                         () -> sender.sendMessage("Team " + args[1] + " is unknown")
                     );
@@ -77,10 +95,39 @@ public class CommandTeam implements Command {
         showHelp(sender);
     }
 
+    @Override
+    public @NotNull Collection<String> complete(@NotNull CommandSender sender, @NonNls String[] args) {
+        if (args.length == 1) {
+            return SUB_COMMANDS;
+        }
+
+        final var subCommand = args[0].toLowerCase();
+        if (args.length == 2 && (subCommand.equals("delete") || subCommand.equals("votes"))) {
+            // the election argument follows the name, the names of the default election are suggested
+            return this.electionManager.getDefaultElection().getTeamController().getRegisteredTeams().stream()
+                .map(Team::getName)
+                .collect(Collectors.toList());
+        } else if ((args.length == 2 && subCommand.equals("list")) || (args.length == 3 && SUB_COMMANDS.contains(subCommand))) {
+            return this.electionManager.getElections().stream().map(Election::getId).collect(Collectors.toList());
+        }
+
+        return Collections.emptyList();
+    }
+
+    @Nullable
+    private TeamController resolveTeamController(@NotNull CommandSender sender, @NotNull String[] args, int electionArgumentCount) {
+        // the election is the optional last argument, the default election is used if it is missing
+        final var electionId = args.length == electionArgumentCount ? args[electionArgumentCount - 1] : null;
+        return this.electionManager.getElection(electionId).map(Election::getTeamController).orElseGet(() -> {
+            sender.sendMessage("Election " + electionId + " is unknown");
+            return null;
+        });
+    }
+
     private static void showHelp(CommandSender sender) {
-        sender.sendMessage("teams list");
-        sender.sendMessage("teams create <name>");
-        sender.sendMessage("teams delete <name>");
-        sender.sendMessage("teams votes <name>");
+        sender.sendMessage("teams list [election]");
+        sender.sendMessage("teams create <name> [election]");
+        sender.sendMessage("teams delete <name> [election]");
+        sender.sendMessage("teams votes <name> [election]");
     }
 }
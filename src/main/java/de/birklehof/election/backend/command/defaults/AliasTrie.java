@@ -0,0 +1,99 @@
+/*
+ * This file is part of election-backend, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) Pasqual Koschmieder <https://github.com/derklaro>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package de.birklehof.election.backend.command.defaults;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+// prefix tree of the command aliases, completions are found in the length of the prefix plus the number of matches
+final class AliasTrie {
+
+    private final Node root = new Node();
+
+    synchronized void insert(@NotNull String alias) {
+        var node = this.root;
+        for (int i = 0; i < alias.length(); i++) {
+            node = node.children.computeIfAbsent(alias.charAt(i), c -> new Node());
+        }
+        node.terminal = true;
+    }
+
+    synchronized void remove(@NotNull String alias) {
+        final var path = new Node[alias.length() + 1];
+        path[0] = this.root;
+        for (int i = 0; i < alias.length(); i++) {
+            path[i + 1] = path[i].children.get(alias.charAt(i));
+            if (path[i + 1] == null) {
+                return;
+            }
+        }
+
+        path[alias.length()].terminal = false;
+        // removes the nodes which no longer lead to an alias
+        for (int i = alias.length(); i > 0 && !path[i].terminal && path[i].children.isEmpty(); i--) {
+            path[i - 1].children.remove(alias.charAt(i - 1));
+        }
+    }
+
+    @NotNull
+    synchronized List<String> complete(@NotNull String prefix) {
+        var node = this.root;
+        for (int i = 0; i < prefix.length() && node != null; i++) {
+            node = node.children.get(prefix.charAt(i));
+        }
+
+        if (node == null) {
+            return Collections.emptyList();
+        }
+
+        final List<String> aliases = new ArrayList<>();
+        collect(node, new StringBuilder(prefix), aliases);
+        return aliases;
+    }
+
+    private static void collect(@NotNull Node node, @NotNull StringBuilder alias, @NotNull List<String> target) {
+        if (node.terminal) {
+            target.add(alias.toString());
+        }
+
+        // the children are sorted, the aliases are collected in alphabetical order
+        for (Map.Entry<Character, Node> entry : node.children.entrySet()) {
+            alias.append(entry.getKey().charValue());
+            collect(entry.getValue(), alias, target);
+            alias.setLength(alias.length() - 1);
+        }
+    }
+
+    private static final class Node {
+
+        private final Map<Character, Node> children = new TreeMap<>();
+        private boolean terminal;
+    }
+}
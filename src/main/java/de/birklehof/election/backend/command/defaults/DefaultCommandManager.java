@@ -35,54 +35,64 @@ import org.jetbrains.annotations.Nullable;
 import org.jetbrains.annotations.UnmodifiableView;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Predicate;
 
 @Component
 public class DefaultCommandManager implements CommandManager {
 
     private final Collection<CommandContainer> commands = Lists.newCopyOnWriteArrayList();
+    // lower case alias to command, the trie contains the same aliases for the completion
+    private final Map<String, CommandContainer> commandsByAlias = new ConcurrentHashMap<>();
+    private final AliasTrie aliasTrie = new AliasTrie();
 
     @Override
-    public @NotNull DefaultCommandManager registerCommand(@NotNull Command command, @NotNull String description, @NonNls String... names) {
+    public synchronized @NotNull DefaultCommandManager registerCommand(@NotNull Command command, @NotNull String description, @NonNls String... names) {
         for (String alias : names) {
-            Optional<CommandContainer> registeredCommand = this.getCommand(alias.toLowerCase());
-            if (registeredCommand.isPresent()) {
-                throw new RuntimeException("Command " + registeredCommand.get().getCommand().getClass().getName() + " clashes with "
+            CommandContainer registeredCommand = this.commandsByAlias.get(alias.toLowerCase());
+            if (registeredCommand != null) {
+                throw new RuntimeException("Command " + registeredCommand.getCommand().getClass().getName() + " clashes with "
                     + command.getClass().getName() + " because of alias '" + alias + "'");
             }
         }
 
-        this.commands.add(new CommandContainer(Arrays.asList(names), description, command));
+        CommandContainer commandContainer = new CommandContainer(Arrays.asList(names), description, command);
+        this.commands.add(commandContainer);
+        for (String alias : commandContainer.getAliases()) {
+            this.commandsByAlias.put(alias, commandContainer);
+            this.aliasTrie.insert(alias);
+        }
         return this;
     }
 
     @Override
-    public void unregisterCommand(@NotNull CommandContainer command) {
-        this.commands.removeIf(commandContainer -> {
-            for (String alias : commandContainer.getAliases()) {
-                if (command.getAliases().stream().anyMatch(alias::equals)) {
-                    return true;
-                }
+    public synchronized void unregisterCommand(@NotNull CommandContainer command) {
+        // every command sharing an alias with the given one is removed
+        for (String alias : command.getAliases()) {
+            CommandContainer registeredCommand = this.commandsByAlias.get(alias);
+            if (registeredCommand == null) {
+                continue;
             }
 
-            return false;
-        });
+            this.commands.remove(registeredCommand);
+            for (String registeredAlias : registeredCommand.getAliases()) {
+                this.commandsByAlias.remove(registeredAlias, registeredCommand);
+                this.aliasTrie.remove(registeredAlias);
+            }
+        }
     }
 
     @NotNull
     @Override
     public Optional<CommandContainer> getCommand(@NotNull String anyAlias) {
-        for (CommandContainer command : this.commands) {
-            if (command.getAliases().contains(anyAlias.toLowerCase())) {
-                return Optional.of(command);
-            }
-        }
-
-        return Optional.empty();
+        return Optional.ofNullable(this.commandsByAlias.get(anyAlias.toLowerCase()));
     }
 
     @NotNull
@@ -119,6 +129,36 @@ public class DefaultCommandManager implements CommandManager {
         return true;
     }
 
+    @Override
+    public @NotNull List<String> complete(@NotNull String commandLine, @NotNull CommandSender commandSender) {
+        String[] split = commandLine.stripLeading().split(" ", -1);
+        String prefix = split[split.length - 1].toLowerCase();
+        if (split.length == 1) {
+            return this.aliasTrie.complete(prefix);
+        }
+
+        CommandContainer command = this.getCommand(split);
+        if (command == null) {
+            return Collections.emptyList();
+        }
+
+        // the last argument is the one which is completed, it may be empty
+        String[] args = Arrays.copyOfRange(split, 1, split.length);
+        List<String> completions = new ArrayList<>();
+        try {
+            for (String candidate : command.getCommand().complete(commandSender, args)) {
+                if (candidate.toLowerCase().startsWith(prefix)) {
+                    completions.add(candidate);
+                }
+            }
+        } catch (Throwable throwable) {
+            System.err.println("Exception completing command \"" + split[0] + "\" with arguments " + String.join(", ", args));
+            throwable.printStackTrace();
+        }
+
+        return completions;
+    }
+
     private @Nullable CommandContainer getCommand(@NotNull String[] split) {
         if (split.length == 0) {
             return null;
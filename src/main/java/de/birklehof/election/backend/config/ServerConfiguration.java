@@ -25,35 +25,131 @@
 package de.birklehof.election.backend.config;
 
 import com.github.derrop.documents.Documents;
+import de.birklehof.election.backend.ballot.BallotMode;
+import de.birklehof.election.backend.logger.OverflowPolicy;
+import de.birklehof.election.backend.mail.MailTransport;
+import de.birklehof.election.backend.ratelimit.RateLimitRule;
 import de.birklehof.election.backend.reflection.ReflectionUtils;
+import de.birklehof.election.backend.sql.StorageType;
 import org.springframework.stereotype.Component;
 
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.List;
 
 @Component
 public class ServerConfiguration {
 
-    private static final Path CONFIGURATION_FILE = Path.of("config.json");
+    // a different file can be used to run a local copy (for example the load simulator) next to the real configuration
+    private static final Path CONFIGURATION_FILE = Path.of(System.getProperty("config-file", "config.json"));
     private static boolean initialized;
     // web server
     private final String webServerHost;
     private final int webServerPort;
+    private final int webServerMaxThreads;
+    private final int webServerMinSpareThreads;
+    private final int webServerAcceptCount;
+    private final int webServerMaxConnections;
+    private final int webServerConnectionTimeout;
+    private final int webServerKeepAliveTimeout;
+    private final int webServerMaxKeepAliveRequests;
+    private final boolean webServerHttp2;
+    private final boolean webServerNio2;
+    private final boolean webServerCompression;
+    private final int webServerCompressionMinSize;
+    // rate limiting
+    private final boolean rateLimitEnabled;
+    private final int rateLimitTableSize;
+    private final List<String> trustedProxies;
+    private final List<RateLimitRule> rateLimits;
     // sql
+    private final StorageType storageType;
+    private final String embeddedDatabaseFile;
     private final String mysqlHost;
     private final int mysqlPort;
     private final String mysqlDatabase;
     private final String mysqlUser;
     private final String mysqlPassword;
+    private final List<String> mysqlReplicas;
+    private final int replicaHealthCheckInterval;
+    // mail
+    private final MailTransport mailTransport;
+    // logging
+    private final int logQueueCapacity;
+    private final OverflowPolicy logOverflowPolicy;
+    private final int logSampleInterval;
+    private final List<String> logLineFilters;
+    private final boolean jsonLogEnabled;
+    private final boolean jsonLogRequests;
+    private final long jsonLogFileSize;
+    private final int jsonLogArchives;
+    private final long jsonLogFlushInterval;
+    // testing
+    private final boolean faultInjectionEnabled;
+    // voting
+    private final int maxTeams;
+    private final int maxTeamIds;
+    private final long ballotAggregationInterval;
+    private final BallotMode ballotMode;
+    private final int maxSelections;
+    private final long leaderboardRebuildInterval;
+    private final long ballotResultRebuildInterval;
+    private final long resultStreamInterval;
+    private final long resultStreamTimeout;
 
     public ServerConfiguration() {
         this.webServerHost = "127.0.0.1";
         this.webServerPort = 8080;
+        this.webServerMaxThreads = 200;
+        this.webServerMinSpareThreads = 10;
+        this.webServerAcceptCount = 100;
+        this.webServerMaxConnections = 8192;
+        this.webServerConnectionTimeout = 20000;
+        this.webServerKeepAliveTimeout = 20000;
+        this.webServerMaxKeepAliveRequests = 100;
+        this.webServerHttp2 = false;
+        this.webServerNio2 = false;
+        this.webServerCompression = false;
+        this.webServerCompressionMinSize = 2048;
+        this.rateLimitEnabled = true;
+        this.rateLimitTableSize = 65536;
+        this.trustedProxies = List.of();
+        // a whole class shares one address behind the school nat, the limits have to leave room for that
+        this.rateLimits = List.of(
+            new RateLimitRule("/api/v1/vote", 600, 120),
+            new RateLimitRule("/api/v1/voteBallot", 600, 120),
+            new RateLimitRule("/api/v1/validate", 1200, 240)
+        );
+        this.storageType = StorageType.MYSQL;
+        this.embeddedDatabaseFile = "";
         this.mysqlHost = "127.0.0.1";
         this.mysqlPort = 3306;
         this.mysqlDatabase = "election";
         this.mysqlUser = "root";
         this.mysqlPassword = "password";
+        this.mysqlReplicas = List.of();
+        this.replicaHealthCheckInterval = 5;
+        this.mailTransport = MailTransport.GMAIL;
+        this.logQueueCapacity = 8192;
+        this.logOverflowPolicy = OverflowPolicy.DROP_LOWEST_LEVEL;
+        this.logSampleInterval = 16;
+        this.logLineFilters = List.of("JDA");
+        this.jsonLogEnabled = true;
+        this.jsonLogRequests = true;
+        this.jsonLogFileSize = 1 << 26;
+        this.jsonLogArchives = 32;
+        this.jsonLogFlushInterval = 1000;
+        this.faultInjectionEnabled = false;
+        this.maxTeams = 64;
+        // ids of deleted teams are never reused, this bounds how many teams an election can create over its lifetime
+        this.maxTeamIds = 4096;
+        this.ballotAggregationInterval = 250;
+        this.ballotMode = BallotMode.RANKED_CHOICE;
+        this.maxSelections = 3;
+        this.leaderboardRebuildInterval = 1000;
+        this.ballotResultRebuildInterval = 2000;
+        this.resultStreamInterval = 500;
+        this.resultStreamTimeout = 30 * 60 * 1000;
         this.load();
     }
 
@@ -76,6 +172,74 @@ public class ServerConfiguration {
         return this.webServerPort;
     }
 
+    public int getWebServerMaxThreads() {
+        return this.webServerMaxThreads;
+    }
+
+    public int getWebServerMinSpareThreads() {
+        return this.webServerMinSpareThreads;
+    }
+
+    public int getWebServerAcceptCount() {
+        return this.webServerAcceptCount;
+    }
+
+    public int getWebServerMaxConnections() {
+        return this.webServerMaxConnections;
+    }
+
+    public int getWebServerConnectionTimeout() {
+        return this.webServerConnectionTimeout;
+    }
+
+    public int getWebServerKeepAliveTimeout() {
+        return this.webServerKeepAliveTimeout;
+    }
+
+    public int getWebServerMaxKeepAliveRequests() {
+        return this.webServerMaxKeepAliveRequests;
+    }
+
+    public boolean isWebServerHttp2() {
+        return this.webServerHttp2;
+    }
+
+    public boolean isWebServerNio2() {
+        return this.webServerNio2;
+    }
+
+    public boolean isWebServerCompression() {
+        return this.webServerCompression;
+    }
+
+    public int getWebServerCompressionMinSize() {
+        return this.webServerCompressionMinSize;
+    }
+
+    public boolean isRateLimitEnabled() {
+        return this.rateLimitEnabled;
+    }
+
+    public int getRateLimitTableSize() {
+        return this.rateLimitTableSize;
+    }
+
+    public List<String> getTrustedProxies() {
+        return this.trustedProxies;
+    }
+
+    public List<RateLimitRule> getRateLimits() {
+        return this.rateLimits;
+    }
+
+    public StorageType getStorageType() {
+        return this.storageType;
+    }
+
+    public String getEmbeddedDatabaseFile() {
+        return this.embeddedDatabaseFile;
+    }
+
     public String getMysqlHost() {
         return this.mysqlHost;
     }
@@ -95,4 +259,92 @@ public class ServerConfiguration {
     public String getMysqlPassword() {
         return this.mysqlPassword;
     }
+
+    public List<String> getMysqlReplicas() {
+        return this.mysqlReplicas;
+    }
+
+    public int getReplicaHealthCheckInterval() {
+        return this.replicaHealthCheckInterval;
+    }
+
+    public MailTransport getMailTransport() {
+        return this.mailTransport;
+    }
+
+    public int getLogQueueCapacity() {
+        return this.logQueueCapacity;
+    }
+
+    public OverflowPolicy getLogOverflowPolicy() {
+        return this.logOverflowPolicy;
+    }
+
+    public int getLogSampleInterval() {
+        return this.logSampleInterval;
+    }
+
+    public List<String> getLogLineFilters() {
+        return this.logLineFilters;
+    }
+
+    public boolean isJsonLogEnabled() {
+        return this.jsonLogEnabled;
+    }
+
+    public boolean isJsonLogRequests() {
+        return this.jsonLogRequests;
+    }
+
+    public long getJsonLogFileSize() {
+        return this.jsonLogFileSize;
+    }
+
+    public int getJsonLogArchives() {
+        return this.jsonLogArchives;
+    }
+
+    public long getJsonLogFlushInterval() {
+        return this.jsonLogFlushInterval;
+    }
+
+    public boolean isFaultInjectionEnabled() {
+        return this.faultInjectionEnabled;
+    }
+
+    public int getMaxTeams() {
+        return this.maxTeams;
+    }
+
+    public int getMaxTeamIds() {
+        return this.maxTeamIds;
+    }
+
+    public long getBallotAggregationInterval() {
+        return this.ballotAggregationInterval;
+    }
+
+    public BallotMode getBallotMode() {
+        return this.ballotMode;
+    }
+
+    public int getMaxSelections() {
+        return this.maxSelections;
+    }
+
+    public long getLeaderboardRebuildInterval() {
+        return this.leaderboardRebuildInterval;
+    }
+
+    public long getBallotResultRebuildInterval() {
+        return this.ballotResultRebuildInterval;
+    }
+
+    public long getResultStreamInterval() {
+        return this.resultStreamInterval;
+    }
+
+    public long getResultStreamTimeout() {
+        return this.resultStreamTimeout;
+    }
 }
@@ -64,7 +64,11 @@ public class DefaultConsole {
 
         try {
             this.terminal = TerminalBuilder.builder().system(true).encoding(StandardCharsets.UTF_8).build();
-            this.lineReader = LineReaderBuilder.builder().terminal(this.terminal).option(LineReader.Option.DISABLE_EVENT_EXPANSION, true).build();
+            this.lineReader = LineReaderBuilder.builder()
+                .terminal(this.terminal)
+                .completer(new CommandCompleter(commandManager))
+                .option(LineReader.Option.DISABLE_EVENT_EXPANSION, true)
+                .build();
         } catch (IOException exception) {
             System.err.println("Unable to create terminal or line reader");
             throw new RuntimeException(exception);
@@ -0,0 +1,84 @@
+/*
+ * This file is part of election-backend, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) Pasqual Koschmieder <https://github.com/derklaro>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package de.birklehof.election.backend.election;
+
+import de.birklehof.election.backend.ballot.BallotEngine;
+import de.birklehof.election.backend.config.ServerConfiguration;
+import de.birklehof.election.backend.sql.MySQLController;
+import de.birklehof.election.backend.teams.SQLTeamController;
+import de.birklehof.election.backend.teams.Team;
+import de.birklehof.election.backend.teams.TeamController;
+import de.birklehof.election.backend.user.SQLUserController;
+import de.birklehof.election.backend.user.UserController;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Optional;
+
+public class Election {
+
+    private final String id;
+    private final UserController userController;
+    private final TeamController teamController;
+    private final BallotEngine ballotEngine;
+
+    protected Election(@NotNull MySQLController sqlController, @NotNull ElectionTables tables, @NotNull ServerConfiguration configuration) {
+        this.id = tables.getElectionId();
+        // every election owns its caches, counters and locks, load on one election never touches the state of another one
+        this.userController = new SQLUserController(sqlController, tables);
+        final var teamController = new SQLTeamController(sqlController, tables, configuration);
+        this.teamController = teamController;
+        this.ballotEngine = new BallotEngine(sqlController, tables, teamController, configuration);
+    }
+
+    @NotNull
+    public String getId() {
+        return this.id;
+    }
+
+    @NotNull
+    public UserController getUserController() {
+        return this.userController;
+    }
+
+    @NotNull
+    public TeamController getTeamController() {
+        return this.teamController;
+    }
+
+    @NotNull
+    public BallotEngine getBallotEngine() {
+        return this.ballotEngine;
+    }
+
+    @NotNull
+    public Optional<Team> findTeam(@Nullable String teamName, @Nullable Integer teamId) {
+        if (teamId != null) {
+            return this.teamController.getTeamById(teamId);
+        }
+
+        return teamName == null ? Optional.empty() : this.teamController.getTeamByName(teamName);
+    }
+}
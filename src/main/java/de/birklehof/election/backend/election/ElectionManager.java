@@ -0,0 +1,120 @@
+/*
+ * This file is part of election-backend, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) Pasqual Koschmieder <https://github.com/derklaro>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package de.birklehof.election.backend.election;
+
+import de.birklehof.election.backend.config.ServerConfiguration;
+import de.birklehof.election.backend.sql.MySQLController;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Component
+public class ElectionManager {
+
+    private final MySQLController sqlController;
+    private final ServerConfiguration configuration;
+    private final Map<String, Election> elections = new ConcurrentHashMap<>();
+    private final Election defaultElection;
+
+    @Autowired
+    public ElectionManager(MySQLController sqlController, ServerConfiguration configuration) {
+        this.sqlController = sqlController;
+        this.configuration = configuration;
+
+        this.sqlController.executeUpdate(
+            "CREATE TABLE IF NOT EXISTS `elections` (`id` VARCHAR(32) PRIMARY KEY)",
+            statement -> {
+            }
+        );
+        final List<String> electionIds = this.sqlController.executePrimaryQuery(
+            "SELECT `id` FROM `elections`",
+            statement -> {
+            }, resultSet -> {
+                List<String> result = new ArrayList<>();
+                while (resultSet.next()) {
+                    result.add(resultSet.getString("id"));
+                }
+                return result;
+            }, new ArrayList<>()
+        );
+
+        this.defaultElection = this.loadElection(ElectionTables.DEFAULT_ELECTION);
+        for (String electionId : electionIds) {
+            if (ElectionTables.isValidElectionId(electionId)) {
+                this.loadElection(electionId);
+            } else {
+                System.err.println("Skipping election with invalid id " + electionId);
+            }
+        }
+    }
+
+    @NotNull
+    public Election getDefaultElection() {
+        return this.defaultElection;
+    }
+
+    @NotNull
+    public Optional<Election> getElection(@Nullable String electionId) {
+        return electionId == null ? Optional.of(this.defaultElection) : Optional.ofNullable(this.elections.get(electionId));
+    }
+
+    @NotNull
+    public Collection<Election> getElections() {
+        return Collections.unmodifiableCollection(this.elections.values());
+    }
+
+    @NotNull
+    public synchronized Election createElection(@NotNull String electionId) {
+        var election = this.elections.get(electionId);
+        if (election != null) {
+            return election;
+        }
+
+        election = this.loadElection(electionId);
+        if (!electionId.equals(ElectionTables.DEFAULT_ELECTION)) {
+            this.sqlController.executeUpdate(
+                "INSERT INTO `elections` (`id`) VALUES (?)",
+                statement -> statement.setString(1, electionId)
+            );
+        }
+        return election;
+    }
+
+    @NotNull
+    private Election loadElection(@NotNull String electionId) {
+        final var election = new Election(this.sqlController, new ElectionTables(electionId), this.configuration);
+        this.elections.put(electionId, election);
+        return election;
+    }
+}
@@ -0,0 +1,60 @@
+/*
+ * This file is part of election-backend, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) Pasqual Koschmieder <https://github.com/derklaro>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package de.birklehof.election.backend.election;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.regex.Pattern;
+
+public final class ElectionTables {
+
+    public static final String DEFAULT_ELECTION = "default";
+
+    private static final Pattern ELECTION_ID_PATTERN = Pattern.compile("[a-z0-9_]{1,32}");
+
+    private final String electionId;
+
+    public ElectionTables(@NotNull String electionId) {
+        if (!isValidElectionId(electionId)) {
+            throw new IllegalArgumentException("Invalid election id " + electionId + ", only a-z, 0-9 and _ are allowed");
+        }
+        this.electionId = electionId;
+    }
+
+    public static boolean isValidElectionId(@NotNull String electionId) {
+        return ELECTION_ID_PATTERN.matcher(electionId).matches();
+    }
+
+    @NotNull
+    public String getElectionId() {
+        return this.electionId;
+    }
+
+    @NotNull
+    public String get(@NotNull String table) {
+        // the default election keeps the table names used before elections were partitioned
+        return this.electionId.equals(DEFAULT_ELECTION) ? table : table + "_" + this.electionId;
+    }
+}
@@ -0,0 +1,50 @@
+/*
+ * This file is part of election-backend, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) Pasqual Koschmieder <https://github.com/derklaro>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package de.birklehof.election.backend.fault;
+
+import de.birklehof.election.backend.mail.MailService;
+import org.jetbrains.annotations.NotNull;
+
+public class FaultInjectingMailService implements MailService {
+
+    private final MailService delegate;
+    private final FaultInjector injector;
+
+    public FaultInjectingMailService(@NotNull MailService delegate, @NotNull FaultInjector injector) {
+        this.delegate = delegate;
+        this.injector = injector;
+    }
+
+    @Override
+    public boolean sendMessage(@NotNull String to, @NotNull String subject, @NotNull String bodyText) {
+        // a failed call is reported like a rejected gmail request
+        return !this.injector.inject() && this.delegate.sendMessage(to, subject, bodyText);
+    }
+
+    @NotNull
+    public MailService getDelegate() {
+        return this.delegate;
+    }
+}
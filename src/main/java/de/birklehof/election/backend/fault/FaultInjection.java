@@ -0,0 +1,61 @@
+/*
+ * This file is part of election-backend, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) Pasqual Koschmieder <https://github.com/derklaro>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package de.birklehof.election.backend.fault;
+
+import de.birklehof.election.backend.config.ServerConfiguration;
+import org.jetbrains.annotations.NotNull;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+@Component
+public class FaultInjection {
+
+    private final boolean enabled;
+    private final FaultInjector sqlInjector = new FaultInjector("sql");
+    private final FaultInjector mailInjector = new FaultInjector("mail");
+
+    @Autowired
+    public FaultInjection(ServerConfiguration configuration) {
+        // the injectors are only installed if enabled, a production backend cannot be slowed down from the console by accident
+        this.enabled = configuration.isFaultInjectionEnabled();
+        if (this.enabled) {
+            System.err.println("Fault injection is enabled, do not use this configuration for a real election");
+        }
+    }
+
+    public boolean isEnabled() {
+        return this.enabled;
+    }
+
+    @NotNull
+    public FaultInjector getSqlInjector() {
+        return this.sqlInjector;
+    }
+
+    @NotNull
+    public FaultInjector getMailInjector() {
+        return this.mailInjector;
+    }
+}
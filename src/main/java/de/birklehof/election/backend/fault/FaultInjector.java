@@ -0,0 +1,99 @@
+/*
+ * This file is part of election-backend, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) Pasqual Koschmieder <https://github.com/derklaro>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package de.birklehof.election.backend.fault;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+public class FaultInjector {
+
+    private final String name;
+    private final LongAdder delayedCalls = new LongAdder();
+    private final LongAdder stalledCalls = new LongAdder();
+    private final LongAdder failedCalls = new LongAdder();
+    private volatile FaultProfile profile = FaultProfile.NONE;
+
+    public FaultInjector(@NotNull String name) {
+        this.name = name;
+    }
+
+    // delays the calling thread as configured, returns true if the call should fail
+    public boolean inject() {
+        final var profile = this.profile;
+        if (!profile.isActive()) {
+            return false;
+        }
+
+        final var random = ThreadLocalRandom.current();
+        var delay = profile.getLatencyDistribution().sample(profile.getLatencyMillis());
+        if (profile.getStallRate() > 0 && random.nextDouble() < profile.getStallRate()) {
+            delay += profile.getStallMillis();
+            this.stalledCalls.increment();
+        }
+
+        if (delay > 0) {
+            this.delayedCalls.increment();
+            try {
+                Thread.sleep(delay);
+            } catch (InterruptedException exception) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        if (profile.getErrorRate() > 0 && random.nextDouble() < profile.getErrorRate()) {
+            this.failedCalls.increment();
+            return true;
+        }
+        return false;
+    }
+
+    @NotNull
+    public String getName() {
+        return this.name;
+    }
+
+    @NotNull
+    public FaultProfile getProfile() {
+        return this.profile;
+    }
+
+    public void setProfile(@NotNull FaultProfile profile) {
+        this.profile = profile;
+    }
+
+    public long getDelayedCalls() {
+        return this.delayedCalls.sum();
+    }
+
+    public long getStalledCalls() {
+        return this.stalledCalls.sum();
+    }
+
+    public long getFailedCalls() {
+        return this.failedCalls.sum();
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ * This file is part of election-backend, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) Pasqual Koschmieder <https://github.com/derklaro>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package de.birklehof.election.backend.fault;
+
+import org.jetbrains.annotations.NotNull;
+
+// immutable, the injector swaps the whole profile when a command changes it
+public final class FaultProfile {
+
+    public static final FaultProfile NONE = new FaultProfile(LatencyDistribution.NONE, 0, 0, 0, 0);
+
+    private final LatencyDistribution latencyDistribution;
+    private final long latencyMillis;
+    private final double errorRate;
+    private final double stallRate;
+    private final long stallMillis;
+
+    private FaultProfile(LatencyDistribution latencyDistribution, long latencyMillis, double errorRate, double stallRate, long stallMillis) {
+        this.latencyDistribution = latencyDistribution;
+        this.latencyMillis = latencyMillis;
+        this.errorRate = errorRate;
+        this.stallRate = stallRate;
+        this.stallMillis = stallMillis;
+    }
+
+    @NotNull
+    public FaultProfile withLatency(@NotNull LatencyDistribution latencyDistribution, long latencyMillis) {
+        return new FaultProfile(latencyDistribution, latencyMillis, this.errorRate, this.stallRate, this.stallMillis);
+    }
+
+    @NotNull
+    public FaultProfile withErrorRate(double errorRate) {
+        return new FaultProfile(this.latencyDistribution, this.latencyMillis, errorRate, this.stallRate, this.stallMillis);
+    }
+
+    @NotNull
+    public FaultProfile withStalls(double stallRate, long stallMillis) {
+        return new FaultProfile(this.latencyDistribution, this.latencyMillis, this.errorRate, stallRate, stallMillis);
+    }
+
+    public boolean isActive() {
+        return this.latencyDistribution != LatencyDistribution.NONE || this.errorRate > 0 || this.stallRate > 0;
+    }
+
+    public LatencyDistribution getLatencyDistribution() {
+        return this.latencyDistribution;
+    }
+
+    public long getLatencyMillis() {
+        return this.latencyMillis;
+    }
+
+    public double getErrorRate() {
+        return this.errorRate;
+    }
+
+    public double getStallRate() {
+        return this.stallRate;
+    }
+
+    public long getStallMillis() {
+        return this.stallMillis;
+    }
+
+    @Override
+    public String toString() {
+        return "latency " + this.latencyDistribution.name().toLowerCase() + " " + this.latencyMillis + "ms, errors " + this.errorRate
+            + ", stalls " + this.stallRate + " for " + this.stallMillis + "ms";
+    }
+}
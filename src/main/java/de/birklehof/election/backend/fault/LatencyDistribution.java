@@ -0,0 +1,59 @@
+/*
+ * This file is part of election-backend, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) Pasqual Koschmieder <https://github.com/derklaro>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package de.birklehof.election.backend.fault;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+public enum LatencyDistribution {
+
+    NONE {
+        @Override
+        public long sample(long millis) {
+            return 0;
+        }
+    },
+    FIXED {
+        @Override
+        public long sample(long millis) {
+            return millis;
+        }
+    },
+    // between 0 and twice the given latency, the mean is the given latency
+    UNIFORM {
+        @Override
+        public long sample(long millis) {
+            return millis == 0 ? 0 : ThreadLocalRandom.current().nextLong(millis * 2);
+        }
+    },
+    // long tail with the given latency as mean, the p99 is about 4.6 times the mean
+    EXPONENTIAL {
+        @Override
+        public long sample(long millis) {
+            return Math.round(-millis * Math.log(1 - ThreadLocalRandom.current().nextDouble()));
+        }
+    };
+
+    public abstract long sample(long millis);
+}
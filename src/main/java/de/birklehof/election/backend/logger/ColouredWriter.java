@@ -26,42 +26,155 @@ package de.birklehof.election.backend.logger;
 
 import org.fusesource.jansi.Ansi;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import org.jline.reader.LineReader;
 import org.jline.utils.InfoCmp;
 
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.ErrorManager;
 import java.util.logging.Handler;
 import java.util.logging.LogRecord;
 
+// records are collected into a frame which is written to the terminal at most once per frame interval
 public class ColouredWriter extends Handler {
 
+    private static final long FRAME_INTERVAL_MILLIS = 50;
+    // further lines of a frame are only written to the log file
+    private static final int MAX_FRAME_LINES = 512;
+    private static final int MAX_REUSED_CAPACITY = 1 << 20;
+
     private final LineReader lineReader;
+    private final ScheduledExecutorService renderer;
+    private final Object renderLock = new Object();
+
+    private StringBuilder pendingFrame = new StringBuilder(8192);
+    private StringBuilder renderedFrame = new StringBuilder(8192);
+    private int frameLines;
+    private int omittedLines;
+    private String lastMessage;
+    private int repeatedMessages;
 
     protected ColouredWriter(LineReader lineReader) {
         this.lineReader = lineReader;
+        this.renderer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            final var thread = new Thread(runnable, "Console renderer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.renderer.scheduleWithFixedDelay(this::render, FRAME_INTERVAL_MILLIS, FRAME_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
     }
 
     @Override
     public void publish(LogRecord record) {
         if (super.isLoggable(record)) {
-            this.publish(super.getFormatter().format(record));
+            this.queue(this.repeatKey(record), super.getFormatter().format(record));
         }
     }
 
     @Override
     public void flush() {
+        // called once per batch by the record dispatcher, the frames are written by the renderer
     }
 
     @Override
     public void close() throws SecurityException {
+        this.renderer.shutdown();
+        this.render();
     }
 
-    private void publish(@NotNull String record) {
-        record = ConsoleColour.toColouredString('&', record);
+    private synchronized void queue(@Nullable String repeatKey, @NotNull String record) {
+        if (repeatKey != null && repeatKey.equals(this.lastMessage)) {
+            this.repeatedMessages++;
+            return;
+        }
+
+        this.appendRepeatedMessages();
+        this.lastMessage = repeatKey;
+
+        // a record with a stack trace spans many lines, the cap is on terminal lines and not on records
+        final var lines = countLines(record);
+        if (this.frameLines + lines > MAX_FRAME_LINES) {
+            // later records are omitted as well, the console never shows them out of order
+            this.frameLines = MAX_FRAME_LINES;
+            this.omittedLines += lines;
+            return;
+        }
+
+        this.frameLines += lines;
+        ConsoleColour.appendColoured('&', record, this.pendingFrame);
+    }
+
+    private static int countLines(@NotNull String record) {
+        var lines = 0;
+        for (int i = 0; i < record.length(); i++) {
+            if (record.charAt(i) == '\n') {
+                lines++;
+            }
+        }
+        return Math.max(1, lines);
+    }
+
+    // records with the same level and message are collapsed, the timestamp is ignored
+    @Nullable
+    private String repeatKey(@NotNull LogRecord record) {
+        final var parameters = record.getParameters();
+        if (record.getThrown() != null || record.getMessage() == null || (parameters != null && parameters.length > 0)) {
+            return null;
+        }
+        return record.getLevel().getName() + ' ' + record.getMessage();
+    }
+
+    private void appendRepeatedMessages() {
+        if (this.repeatedMessages > 0) {
+            ConsoleColour.appendColoured('&', "&8... last message repeated " + this.repeatedMessages + " more times&r\n", this.pendingFrame);
+            this.repeatedMessages = 0;
+        }
+    }
+
+    private void render() {
+        synchronized (this.renderLock) {
+            final StringBuilder frame;
+            synchronized (this) {
+                // a running repetition keeps its key, the next frame continues to count it
+                this.appendRepeatedMessages();
+                if (this.omittedLines > 0) {
+                    ConsoleColour.appendColoured('&', "&8... " + this.omittedLines + " more lines were only written to the log file&r\n", this.pendingFrame);
+                    this.omittedLines = 0;
+                }
+                if (this.pendingFrame.length() == 0) {
+                    return;
+                }
+
+                frame = this.pendingFrame;
+                this.pendingFrame = this.renderedFrame;
+                this.renderedFrame = frame;
+                this.frameLines = 0;
+            }
+
+            try {
+                this.write(frame);
+            } catch (RuntimeException exception) {
+                super.reportError("Unable to write to the console", exception, ErrorManager.WRITE_FAILURE);
+            }
+
+            frame.setLength(0);
+            if (frame.capacity() > MAX_REUSED_CAPACITY) {
+                // a burst should not keep its frame buffer forever
+                this.renderedFrame = new StringBuilder(8192);
+            }
+        }
+    }
 
+    private void write(@NotNull CharSequence frame) {
         this.lineReader.getTerminal().puts(InfoCmp.Capability.carriage_return);
         this.lineReader.getTerminal().puts(InfoCmp.Capability.clr_eol);
-        this.lineReader.getTerminal().writer().print(Ansi.ansi().eraseLine(Ansi.Erase.ALL).toString() + '\r' + record + Ansi.ansi().reset().toString());
-        this.lineReader.getTerminal().writer().flush();
+        final var writer = this.lineReader.getTerminal().writer();
+        writer.print(Ansi.ansi().eraseLine(Ansi.Erase.ALL).toString() + '\r');
+        writer.append(frame);
+        writer.print(Ansi.ansi().reset().toString());
+        writer.flush();
 
         this.redisplay();
     }
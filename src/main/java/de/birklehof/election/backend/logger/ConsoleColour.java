@@ -26,8 +26,7 @@ package de.birklehof.election.backend.logger;
 
 import org.fusesource.jansi.Ansi;
 import org.jetbrains.annotations.NotNull;
-
-import java.util.regex.Pattern;
+import org.jetbrains.annotations.Nullable;
 
 public enum ConsoleColour {
 
@@ -57,54 +56,114 @@ public enum ConsoleColour {
 
     public static final char COLOR_CHAR = '§';
     public static final String ALL_CODES = "0123456789AaBbCcDdEeFfKkLlMmNnOoRr";
-    public static final Pattern STRIP_COLOR_PATTERN = Pattern.compile("(?i)" + COLOR_CHAR + "[0-9A-FK-OR]");
+
+    // indexed by the code char, both cases map to the same sequence
+    private static final String[] ANSI_BY_CODE = createLookupTable();
+    private static final int MAX_REUSED_CAPACITY = 1 << 16;
+    private static final ThreadLocal<StringBuilder> BUILDER = ThreadLocal.withInitial(() -> new StringBuilder(256));
 
     private final String toString;
+    private final char code;
     private final String ansi;
-    private final Pattern pattern;
 
     ConsoleColour(char code, @NotNull String ansi) {
+        this.code = code;
         this.ansi = ansi;
         this.toString = new String(new char[]{COLOR_CHAR, code});
-        this.pattern = Pattern.compile("(?i)" + this.toString());
+    }
+
+    @NotNull
+    private static String[] createLookupTable() {
+        final var table = new String[128];
+        for (ConsoleColour value : values()) {
+            table[value.code] = value.ansi;
+            table[Character.toUpperCase(value.code)] = value.ansi;
+        }
+        return table;
     }
 
     @NotNull
     public static String stripColor(@NotNull String input) {
-        return STRIP_COLOR_PATTERN.matcher(input).replaceAll("");
+        return stripColor(COLOR_CHAR, input);
     }
 
+    // removes the codes starting with the given char and the ones starting with the colour char
     @NotNull
     public static String stripColor(char altColorChar, @NotNull String input) {
-        return stripColor(toColouredString(altColorChar, input));
+        if (!containsCodeChar(altColorChar, input)) {
+            return input;
+        }
+
+        final var builder = reusableBuilder();
+        appendStripped(altColorChar, input, builder);
+        return builder.toString();
     }
 
     @NotNull
     public static String toColouredString(char altColorChar, @NotNull String textToTranslate) {
-        char[] b = textToTranslate.toCharArray();
-        for (int i = 0; i < b.length - 1; i++) {
-            if (b[i] == altColorChar && ALL_CODES.indexOf(b[i + 1]) > -1) {
-                b[i] = ConsoleColour.COLOR_CHAR;
-                b[i + 1] = Character.toLowerCase(b[i + 1]);
+        if (!containsCodeChar(altColorChar, textToTranslate)) {
+            return textToTranslate;
+        }
+
+        final var builder = reusableBuilder();
+        appendColoured(altColorChar, textToTranslate, builder);
+        return builder.toString();
+    }
+
+    public static void appendStripped(char altColorChar, @NotNull CharSequence input, @NotNull StringBuilder target) {
+        final var length = input.length();
+        for (int i = 0; i < length; i++) {
+            final var c = input.charAt(i);
+            if ((c == altColorChar || c == COLOR_CHAR) && i + 1 < length && lookup(input.charAt(i + 1)) != null) {
+                i++;
+            } else {
+                target.append(c);
             }
         }
+    }
 
-        String s = new String(b);
-        for (ConsoleColour value : ConsoleColour.values()) {
-            s = value.getPattern().matcher(s).replaceAll(value.getAnsi());
+    public static void appendColoured(char altColorChar, @NotNull CharSequence input, @NotNull StringBuilder target) {
+        final var length = input.length();
+        for (int i = 0; i < length; i++) {
+            final var c = input.charAt(i);
+            final var ansi = (c == altColorChar || c == COLOR_CHAR) && i + 1 < length ? lookup(input.charAt(i + 1)) : null;
+            if (ansi != null) {
+                target.append(ansi);
+                i++;
+            } else {
+                target.append(c);
+            }
         }
+    }
 
-        return s;
+    @Nullable
+    private static String lookup(char code) {
+        return code < ANSI_BY_CODE.length ? ANSI_BY_CODE[code] : null;
+    }
+
+    private static boolean containsCodeChar(char altColorChar, @NotNull String input) {
+        return input.indexOf(altColorChar) != -1 || input.indexOf(COLOR_CHAR) != -1;
     }
 
     @NotNull
-    public String getAnsi() {
-        return this.ansi;
+    private static StringBuilder reusableBuilder() {
+        var builder = BUILDER.get();
+        if (builder.capacity() > MAX_REUSED_CAPACITY) {
+            // a single huge line (for example a long stack trace) should not stay on the thread forever
+            builder = new StringBuilder(256);
+            BUILDER.set(builder);
+        }
+        builder.setLength(0);
+        return builder;
+    }
+
+    public char getCode() {
+        return this.code;
     }
 
     @NotNull
-    public Pattern getPattern() {
-        return this.pattern;
+    public String getAnsi() {
+        return this.ansi;
     }
 
     @Override
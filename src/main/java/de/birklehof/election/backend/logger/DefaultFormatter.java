@@ -27,38 +27,89 @@ package de.birklehof.election.backend.logger;
 import org.jetbrains.annotations.NotNull;
 
 import java.io.PrintWriter;
-import java.io.StringWriter;
-import java.text.DateFormat;
-import java.text.SimpleDateFormat;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
 import java.util.logging.Formatter;
 import java.util.logging.Level;
 import java.util.logging.LogRecord;
 
 public class DefaultFormatter extends Formatter {
 
-    private static final DateFormat FORMAT = new SimpleDateFormat(System.getProperty("log-date-format", "dd.MM.yyyy kk:mm:ss"));
+    private static final String DATE_PATTERN = System.getProperty("log-date-format", "dd.MM.yyyy kk:mm:ss");
+    private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern(DATE_PATTERN).withZone(ZoneId.systemDefault());
+    // a pattern with fractions of a second changes on every record, caching it per second would be wrong
+    private static final boolean CACHE_TIMESTAMP = DATE_PATTERN.chars().noneMatch(c -> c == 'S' || c == 'n' || c == 'N' || c == 'A');
+    private static final int MAX_REUSED_CAPACITY = 1 << 16;
+    private static final ThreadLocal<StringBuilder> BUILDER = ThreadLocal.withInitial(() -> new StringBuilder(256));
+
+    // the codes of a coloured record are translated by the console handler, all others are written without them
+    private final boolean coloured;
+    private volatile CachedTimestamp cachedTimestamp = new CachedTimestamp(Long.MIN_VALUE, "");
+
+    public DefaultFormatter(boolean coloured) {
+        this.coloured = coloured;
+    }
 
     @Override
     public String format(LogRecord record) {
-        StringBuilder stringBuilder = new StringBuilder();
+        var stringBuilder = BUILDER.get();
+        if (stringBuilder.capacity() > MAX_REUSED_CAPACITY) {
+            // a long stack trace should not stay on the thread forever
+            stringBuilder = new StringBuilder(256);
+            BUILDER.set(stringBuilder);
+        }
+        stringBuilder.setLength(0);
 
-        stringBuilder.append(FORMAT.format(record.getMillis()));
+        stringBuilder.append(this.timestamp(record.getMillis()));
         stringBuilder.append(" [");
         this.appendLevel(stringBuilder, record.getLevel());
         stringBuilder.append("] ");
-        stringBuilder.append(ConsoleColour.stripColor('&', super.formatMessage(record)));
+        if (this.coloured) {
+            stringBuilder.append(message(record));
+        } else {
+            ConsoleColour.appendStripped('&', message(record), stringBuilder);
+        }
         stringBuilder.append('\n');
 
         if (record.getThrown() != null) {
-            StringWriter stringWriter = new StringWriter();
-            record.getThrown().printStackTrace(new PrintWriter(stringWriter));
-            stringBuilder.append(stringWriter);
+            record.getThrown().printStackTrace(new PrintWriter(new StringBuilderWriter(stringBuilder)));
         }
 
         return stringBuilder.toString();
     }
 
+    @NotNull
+    private String timestamp(long millis) {
+        if (!CACHE_TIMESTAMP) {
+            return DATE_FORMATTER.format(Instant.ofEpochMilli(millis));
+        }
+
+        // the text is rendered once per second, records of the same second share it
+        final var second = Math.floorDiv(millis, 1000);
+        var cached = this.cachedTimestamp;
+        if (cached.second != second) {
+            cached = new CachedTimestamp(second, DATE_FORMATTER.format(Instant.ofEpochSecond(second)));
+            this.cachedTimestamp = cached;
+        }
+        return cached.text;
+    }
+
+    private String message(@NotNull LogRecord record) {
+        // formatMessage is synchronized, records without parameters or localization do not need it
+        final var parameters = record.getParameters();
+        if (record.getResourceBundle() == null && (parameters == null || parameters.length == 0)) {
+            return record.getMessage();
+        }
+        return super.formatMessage(record);
+    }
+
     private void appendLevel(@NotNull StringBuilder stringBuilder, @NotNull Level level) {
+        if (!this.coloured) {
+            stringBuilder.append(level.getLocalizedName());
+            return;
+        }
+
         ConsoleColour consoleColour;
         if (level == Level.INFO) {
             consoleColour = ConsoleColour.GREEN;
@@ -72,4 +123,15 @@ public class DefaultFormatter extends Formatter {
 
         stringBuilder.append(consoleColour).append(level.getLocalizedName()).append(ConsoleColour.RESET);
     }
+
+    private static final class CachedTimestamp {
+
+        private final long second;
+        private final String text;
+
+        private CachedTimestamp(long second, String text) {
+            this.second = second;
+            this.text = text;
+        }
+    }
 }
@@ -0,0 +1,341 @@
+/*
+ * This file is part of election-backend, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) Pasqual Koschmieder <https://github.com/derklaro>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package de.birklehof.election.backend.logger;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.ErrorManager;
+import java.util.logging.Formatter;
+import java.util.logging.Handler;
+import java.util.logging.LogRecord;
+import java.util.logging.SimpleFormatter;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPOutputStream;
+
+// writes one json object per line, the records are encoded into a direct buffer which is written when it is full or by the flush task
+public class JsonLogHandler extends Handler {
+
+    private static final int BUFFER_SIZE = 1 << 20;
+    private static final String ARCHIVE_PREFIX = "log-";
+    private static final String ARCHIVE_SUFFIX = ".ndjson";
+    private static final DateTimeFormatter ARCHIVE_TIME = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss").withZone(ZoneId.systemDefault());
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private final Path file;
+    private final Path directory;
+    private final long limit;
+    private final int maxArchives;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+    private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder()
+        .onMalformedInput(CodingErrorAction.REPLACE)
+        .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    private final StringBuilder json = new StringBuilder(1024);
+    private final StringBuilder text = new StringBuilder(256);
+    private final Formatter messageFormatter = new SimpleFormatter();
+    // runs the timed flush and compresses the rotated files
+    private final ScheduledExecutorService executor;
+
+    private FileChannel channel;
+    private long written;
+
+    public JsonLogHandler(@NotNull Path file, long limit, int maxArchives, long flushIntervalMillis) throws IOException {
+        this.file = file.toAbsolutePath();
+        this.directory = this.file.getParent();
+        this.limit = limit;
+        this.maxArchives = Math.max(1, maxArchives);
+        this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            final var thread = new Thread(runnable, "JSON log writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        this.open();
+        this.executor.scheduleWithFixedDelay(this::writeBuffer, flushIntervalMillis, flushIntervalMillis, TimeUnit.MILLISECONDS);
+
+        // archives left uncompressed by a crash
+        try (var files = Files.list(this.directory)) {
+            for (Path archive : files.filter(path -> this.isArchive(path, ARCHIVE_SUFFIX)).collect(Collectors.toList())) {
+                this.executor.execute(() -> this.compress(archive));
+            }
+        }
+    }
+
+    @Override
+    public synchronized void publish(LogRecord record) {
+        if (this.channel == null || !super.isLoggable(record)) {
+            return;
+        }
+
+        this.json.setLength(0);
+        this.appendRecord(record);
+        this.json.append('\n');
+
+        final var chars = CharBuffer.wrap(this.json);
+        this.encoder.reset();
+        // a full buffer is written and reused, records larger than the buffer are written in parts
+        while (this.encoder.encode(chars, this.buffer, true).isOverflow()) {
+            if (!this.writeBuffer()) {
+                return;
+            }
+        }
+        this.encoder.flush(this.buffer);
+
+        if (this.written + this.buffer.position() >= this.limit) {
+            this.rotate();
+        }
+    }
+
+    @Override
+    public void flush() {
+        // called once per batch by the record dispatcher, the buffer is written by size or by the flush task instead
+    }
+
+    @Override
+    public void close() {
+        synchronized (this) {
+            this.writeBuffer();
+            if (this.channel != null) {
+                try {
+                    this.channel.close();
+                } catch (IOException exception) {
+                    super.reportError("Unable to close the json log", exception, ErrorManager.CLOSE_FAILURE);
+                }
+                this.channel = null;
+            }
+            this.executor.shutdown();
+        }
+
+        // lets a running compression finish
+        try {
+            this.executor.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void open() throws IOException {
+        // appends to the file of the last run, it is rotated like every other one when it reaches the limit
+        this.channel = FileChannel.open(this.file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        this.written = this.channel.size();
+    }
+
+    private synchronized boolean writeBuffer() {
+        if (this.channel == null) {
+            return false;
+        }
+
+        this.buffer.flip();
+        try {
+            while (this.buffer.hasRemaining()) {
+                this.written += this.channel.write(this.buffer);
+            }
+            return true;
+        } catch (IOException exception) {
+            super.reportError("Unable to write the json log", exception, ErrorManager.WRITE_FAILURE);
+            return false;
+        } finally {
+            this.buffer.clear();
+        }
+    }
+
+    private void rotate() {
+        if (!this.writeBuffer()) {
+            return;
+        }
+
+        try {
+            this.channel.close();
+            final var archive = this.archiveFile();
+            Files.move(this.file, archive);
+            this.executor.execute(() -> this.compress(archive));
+        } catch (IOException exception) {
+            super.reportError("Unable to rotate the json log", exception, ErrorManager.CLOSE_FAILURE);
+        }
+
+        try {
+            this.open();
+        } catch (IOException exception) {
+            this.channel = null;
+            super.reportError("Unable to open the json log", exception, ErrorManager.OPEN_FAILURE);
+        }
+    }
+
+    @NotNull
+    private Path archiveFile() {
+        final var name = ARCHIVE_PREFIX + ARCHIVE_TIME.format(Instant.now());
+        var archive = this.directory.resolve(name + ARCHIVE_SUFFIX);
+        for (int suffix = 1; Files.exists(archive) || Files.exists(this.compressedFile(archive)); suffix++) {
+            archive = this.directory.resolve(name + "_" + suffix + ARCHIVE_SUFFIX);
+        }
+        return archive;
+    }
+
+    private void compress(@NotNull Path archive) {
+        try (var outputStream = new GZIPOutputStream(Files.newOutputStream(this.compressedFile(archive)), 1 << 16)) {
+            Files.copy(archive, outputStream);
+        } catch (IOException exception) {
+            super.reportError("Unable to compress " + archive, exception, ErrorManager.GENERIC_FAILURE);
+            return;
+        }
+
+        try {
+            Files.delete(archive);
+            // the names contain the rotation time, the oldest ones sort first
+            try (var files = Files.list(this.directory)) {
+                final var archives = files.filter(path -> this.isArchive(path, ARCHIVE_SUFFIX + ".gz")).sorted().collect(Collectors.toList());
+                for (int i = 0; i < archives.size() - this.maxArchives; i++) {
+                    Files.deleteIfExists(archives.get(i));
+                }
+            }
+        } catch (IOException exception) {
+            super.reportError("Unable to clean up the json log archives", exception, ErrorManager.GENERIC_FAILURE);
+        }
+    }
+
+    @NotNull
+    private Path compressedFile(@NotNull Path archive) {
+        return archive.resolveSibling(archive.getFileName() + ".gz");
+    }
+
+    private boolean isArchive(@NotNull Path path, @NotNull String suffix) {
+        final var name = path.getFileName().toString();
+        return name.startsWith(ARCHIVE_PREFIX) && name.endsWith(suffix);
+    }
+
+    private void appendRecord(@NotNull LogRecord record) {
+        this.json.append("{\"time\":\"");
+        DateTimeFormatter.ISO_INSTANT.formatTo(record.getInstant(), this.json);
+        this.json.append("\",\"level\":\"").append(record.getLevel().getName()).append('"');
+
+        // records are copied by the server logger, other loggers which share this handler only have the id
+        if (record instanceof StructuredLogRecord) {
+            this.appendField("thread", ((StructuredLogRecord) record).getThreadName());
+        }
+        this.json.append(",\"threadId\":").append(record.getThreadID());
+        if (record.getLoggerName() != null) {
+            this.appendField("logger", record.getLoggerName());
+        }
+
+        this.text.setLength(0);
+        ConsoleColour.appendStripped('&', this.message(record), this.text);
+        this.appendField("message", this.text);
+
+        if (record.getThrown() != null) {
+            this.text.setLength(0);
+            record.getThrown().printStackTrace(new PrintWriter(new StringBuilderWriter(this.text)));
+            this.appendField("thrown", this.text);
+        }
+
+        if (record instanceof StructuredLogRecord) {
+            for (Map.Entry<String, Object> entry : ((StructuredLogRecord) record).getFields().entrySet()) {
+                this.appendKey(entry.getKey());
+                this.appendValue(entry.getValue());
+            }
+        }
+        this.json.append('}');
+    }
+
+    @NotNull
+    private String message(@NotNull LogRecord record) {
+        final var parameters = record.getParameters();
+        if (record.getResourceBundle() == null && (parameters == null || parameters.length == 0)) {
+            return String.valueOf(record.getMessage());
+        }
+        return this.messageFormatter.formatMessage(record);
+    }
+
+    private void appendField(@NotNull String key, @NotNull CharSequence value) {
+        this.appendKey(key);
+        this.appendString(value);
+    }
+
+    private void appendKey(@NotNull String key) {
+        this.json.append(',');
+        this.appendString(key);
+        this.json.append(':');
+    }
+
+    private void appendValue(Object value) {
+        if (value == null) {
+            this.json.append("null");
+        } else if (value instanceof Boolean || value instanceof Integer || value instanceof Long) {
+            this.json.append(value);
+        } else if (value instanceof Number && Double.isFinite(((Number) value).doubleValue())) {
+            this.json.append(value);
+        } else {
+            this.appendString(String.valueOf(value));
+        }
+    }
+
+    private void appendString(@NotNull CharSequence value) {
+        this.json.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            final var c = value.charAt(i);
+            switch (c) {
+                case '"':
+                    this.json.append("\\\"");
+                    break;
+                case '\\':
+                    this.json.append("\\\\");
+                    break;
+                case '\n':
+                    this.json.append("\\n");
+                    break;
+                case '\r':
+                    this.json.append("\\r");
+                    break;
+                case '\t':
+                    this.json.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        this.json.append("\\u00").append(HEX[c >> 4]).append(HEX[c & 0xF]);
+                    } else {
+                        this.json.append(c);
+                    }
+                    break;
+            }
+        }
+        this.json.append('"');
+    }
+}
@@ -24,40 +24,172 @@
  */
 package de.birklehof.election.backend.logger;
 
-import java.io.ByteArrayOutputStream;
-import java.io.IOException;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.OutputStream;
 import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
-public class LoggingOutputStream extends ByteArrayOutputStream {
+// splits the bytes into lines as they arrive, the lines of a printed stack trace are collected into one record
+public class LoggingOutputStream extends OutputStream {
 
-    private static final String LINE_SEPARATOR = System.getProperty("line.separator");
+    private static final long TRACE_TIMEOUT = TimeUnit.MILLISECONDS.toNanos(50);
+    private static final ScheduledExecutorService TRACE_FLUSHER = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        var thread = new Thread(runnable, "Stack trace flusher");
+        thread.setDaemon(true);
+        return thread;
+    });
 
     private final Logger parent;
     private final Level level;
+    private final List<String> filters;
+
+    private byte[] line = new byte[256];
+    private int lineLength;
+    // a stack trace is complete once a line which does not belong to it arrives or nothing was printed for a while
+    private final StringBuilder trace = new StringBuilder();
+    private long lastTraceLine;
+    private boolean traceFlushScheduled;
 
-    protected LoggingOutputStream(Logger parent, Level level) {
+    protected LoggingOutputStream(Logger parent, Level level, List<String> filters) {
         this.parent = parent;
         this.level = level;
+        this.filters = filters;
+    }
+
+    @Override
+    public synchronized void write(int b) {
+        if (b == '\n') {
+            this.completeLine();
+        } else {
+            this.append(b);
+        }
+    }
+
+    @Override
+    public synchronized void write(@NotNull byte[] bytes, int offset, int length) {
+        final var end = offset + length;
+        var start = offset;
+        for (int i = offset; i < end; i++) {
+            if (bytes[i] == '\n') {
+                this.append(bytes, start, i - start);
+                this.completeLine();
+                start = i + 1;
+            }
+        }
+        this.append(bytes, start, end - start);
     }
 
     @Override
-    public void flush() throws IOException {
-        synchronized (this) {
-            super.flush();
-            String content = this.toString(StandardCharsets.UTF_8.name());
-            super.reset();
+    public synchronized void close() {
+        if (this.lineLength > 0) {
+            this.completeLine();
+        }
+        this.publishTrace();
+    }
+
+    private void append(int b) {
+        if (this.lineLength == this.line.length) {
+            this.line = Arrays.copyOf(this.line, this.line.length * 2);
+        }
+        this.line[this.lineLength++] = (byte) b;
+    }
 
-            if (content.isEmpty() || content.equals(LINE_SEPARATOR) || content.contains("JDA")) {
+    private void append(@NotNull byte[] bytes, int offset, int length) {
+        if (this.lineLength + length > this.line.length) {
+            this.line = Arrays.copyOf(this.line, Math.max(this.line.length * 2, this.lineLength + length));
+        }
+        System.arraycopy(bytes, offset, this.line, this.lineLength, length);
+        this.lineLength += length;
+    }
+
+    private void completeLine() {
+        // a windows line separator leaves the carriage return at the end
+        final var length = this.lineLength > 0 && this.line[this.lineLength - 1] == '\r' ? this.lineLength - 1 : this.lineLength;
+        this.lineLength = 0;
+        if (length == 0) {
+            return;
+        }
+
+        final var text = new String(this.line, 0, length, StandardCharsets.UTF_8);
+        if (this.trace.length() > 0) {
+            if (isTraceContinuation(text)) {
+                this.trace.append('\n').append(text);
+                this.lastTraceLine = System.nanoTime();
                 return;
             }
+            this.publishTrace();
+        }
 
-            if (content.endsWith(LINE_SEPARATOR)) {
-                content = content.replaceFirst("(?s)(.*)" + LINE_SEPARATOR, "$1");
+        if (isTraceStart(text)) {
+            this.trace.append(text);
+            this.lastTraceLine = System.nanoTime();
+            this.scheduleTraceFlush();
+        } else {
+            this.publish(text);
+        }
+    }
+
+    private void scheduleTraceFlush() {
+        if (!this.traceFlushScheduled) {
+            this.traceFlushScheduled = true;
+            TRACE_FLUSHER.schedule(this::flushIdleTrace, TRACE_TIMEOUT, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private synchronized void flushIdleTrace() {
+        this.traceFlushScheduled = false;
+        if (this.trace.length() == 0) {
+            return;
+        }
+
+        final var idle = System.nanoTime() - this.lastTraceLine;
+        if (idle >= TRACE_TIMEOUT) {
+            this.publishTrace();
+        } else {
+            this.traceFlushScheduled = true;
+            TRACE_FLUSHER.schedule(this::flushIdleTrace, TRACE_TIMEOUT - idle, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private void publishTrace() {
+        if (this.trace.length() > 0) {
+            final var text = this.trace.toString();
+            this.trace.setLength(0);
+            this.publish(text);
+        }
+    }
+
+    private void publish(@NotNull String text) {
+        for (String filter : this.filters) {
+            if (text.contains(filter)) {
+                return;
             }
+        }
 
-            this.parent.log(this.level, content);
+        this.parent.log(this.level, text);
+    }
+
+    private static boolean isTraceStart(@NotNull String line) {
+        if (line.startsWith("Exception in thread ")) {
+            return true;
         }
+
+        // the first line of a stack trace is the class name of the throwable, optionally followed by its message
+        final var separator = line.indexOf(':');
+        final var className = separator == -1 ? line : line.substring(0, separator);
+        return className.indexOf('.') != -1
+            && className.indexOf(' ') == -1
+            && (className.endsWith("Exception") || className.endsWith("Error") || className.endsWith("Throwable"));
+    }
+
+    private static boolean isTraceContinuation(@NotNull String line) {
+        return line.charAt(0) == '\t' || line.startsWith("Caused by: ") || line.startsWith("Suppressed: ");
     }
 }
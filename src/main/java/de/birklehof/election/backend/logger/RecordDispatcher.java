@@ -26,38 +26,133 @@ package de.birklehof.election.backend.logger;
 
 import org.jetbrains.annotations.NotNull;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.BlockingQueue;
-import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
 import java.util.logging.LogRecord;
 
 public class RecordDispatcher extends Thread {
 
+    private static final int BATCH_SIZE = 256;
+    private static final long DROP_REPORT_INTERVAL = TimeUnit.SECONDS.toNanos(1);
+
     private final ServerLogger serverLogger;
-    private final BlockingQueue<LogRecord> queue = new LinkedBlockingQueue<>();
+    private final BlockingQueue<LogRecord> queue;
+    private final OverflowPolicy overflowPolicy;
+    private final int sampleInterval;
+    // space which is only used by warnings and errors if the overflow policy drops the lowest level
+    private final int reservedCapacity;
+    private final AtomicLong overflowingRecords = new AtomicLong();
+    private final LongAdder droppedRecords = new LongAdder();
+    // only accessed by the logging thread
+    private long reportedDroppedRecords;
+    private long lastDropReport;
 
-    protected RecordDispatcher(ServerLogger serverLogger) {
+    protected RecordDispatcher(ServerLogger serverLogger, int capacity, @NotNull OverflowPolicy overflowPolicy, int sampleInterval) {
         super("Logging Thread");
         this.serverLogger = serverLogger;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.overflowPolicy = overflowPolicy;
+        this.sampleInterval = Math.max(1, sampleInterval);
+        this.reservedCapacity = capacity / 4;
     }
 
     @Override
     public void run() {
+        final List<LogRecord> batch = new ArrayList<>(BATCH_SIZE);
         while (!super.isInterrupted()) {
             try {
-                this.serverLogger.flushRecord(this.queue.take());
+                batch.add(this.queue.take());
             } catch (InterruptedException ignored) {
                 break;
             }
-        }
 
-        for (LogRecord logRecord : this.queue) {
-            this.serverLogger.flushRecord(logRecord);
+            // everything that piled up while the last batch was written goes out with a single flush
+            this.queue.drainTo(batch, BATCH_SIZE - 1);
+            this.serverLogger.flushRecords(batch);
+            batch.clear();
+            this.reportDroppedRecords(false);
         }
+
+        this.queue.drainTo(batch);
+        this.serverLogger.flushRecords(batch);
+        this.reportDroppedRecords(true);
     }
 
     protected void queue(@NotNull LogRecord record) {
-        if (!super.isInterrupted()) {
-            this.queue.add(record);
+        if (this.overflowPolicy == OverflowPolicy.DROP_LOWEST_LEVEL && record.getLevel().intValue() < Level.WARNING.intValue()
+            && this.queue.remainingCapacity() <= this.reservedCapacity) {
+            this.droppedRecords.increment();
+            return;
+        }
+
+        if (super.isInterrupted() || this.queue.offer(record)) {
+            return;
+        }
+
+        // a full queue is written by the logging thread itself (for example a failing handler), waiting would never end
+        if (Thread.currentThread() == this) {
+            this.droppedRecords.increment();
+            return;
+        }
+
+        switch (this.overflowPolicy) {
+            case BLOCK:
+                this.put(record);
+                break;
+            case DROP_LOWEST_LEVEL:
+                // the reserved space is used up as well, for example by a storm of stack traces, waiting would stall the callers
+                this.droppedRecords.increment();
+                break;
+            case SAMPLE:
+                if (this.overflowingRecords.getAndIncrement() % this.sampleInterval == 0) {
+                    this.put(record);
+                } else {
+                    this.droppedRecords.increment();
+                }
+                break;
+            default:
+                throw new IllegalStateException("Unknown overflow policy " + this.overflowPolicy);
         }
     }
+
+    public long getDroppedRecords() {
+        return this.droppedRecords.sum();
+    }
+
+    private void put(@NotNull LogRecord record) {
+        try {
+            while (!this.queue.offer(record, 100, TimeUnit.MILLISECONDS)) {
+                if (super.isInterrupted() || !super.isAlive()) {
+                    this.droppedRecords.increment();
+                    return;
+                }
+            }
+        } catch (InterruptedException exception) {
+            this.droppedRecords.increment();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void reportDroppedRecords(boolean force) {
+        final var dropped = this.droppedRecords.sum();
+        final var now = System.nanoTime();
+        if (dropped == this.reportedDroppedRecords || (!force && now - this.lastDropReport < DROP_REPORT_INTERVAL)) {
+            return;
+        }
+
+        // written directly, queueing the report would compete with the records which caused the drops
+        final var report = new LogRecord(Level.WARNING, "Dropped " + (dropped - this.reportedDroppedRecords) + " log records because the log queue was full ("
+            + dropped + " in total, overflow policy " + this.overflowPolicy.name().toLowerCase() + ")");
+        report.setLoggerName(this.serverLogger.getName());
+        this.serverLogger.flushRecords(List.of(report));
+
+        this.reportedDroppedRecords = dropped;
+        this.lastDropReport = now;
+    }
 }
@@ -0,0 +1,115 @@
+/*
+ * This file is part of election-backend, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) Pasqual Koschmieder <https://github.com/derklaro>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package de.birklehof.election.backend.logger;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.logging.ErrorManager;
+import java.util.logging.LogRecord;
+import java.util.logging.StreamHandler;
+
+// unlike the FileHandler this does not flush after every record, the record dispatcher flushes once per batch
+public class RotatingFileHandler extends StreamHandler {
+
+    private final Path baseFile;
+    private final long limit;
+    private final int count;
+    private CountingOutputStream outputStream;
+
+    public RotatingFileHandler(@NotNull Path baseFile, long limit, int count) throws IOException {
+        this.baseFile = baseFile;
+        this.limit = limit;
+        this.count = Math.max(1, count);
+        this.open();
+    }
+
+    @Override
+    public synchronized void publish(LogRecord record) {
+        super.publish(record);
+        if (this.outputStream != null && this.outputStream.written >= this.limit) {
+            this.rotate();
+        }
+    }
+
+    private void open() throws IOException {
+        // the files are named like the ones of the FileHandler (latest.log.0 is the current one), appending to the last file after a restart
+        final var file = this.file(0);
+        final var existingSize = Files.exists(file) ? Files.size(file) : 0;
+        this.outputStream = new CountingOutputStream(Files.newOutputStream(file, StandardOpenOption.CREATE, StandardOpenOption.APPEND), existingSize);
+        super.setOutputStream(this.outputStream);
+    }
+
+    private void rotate() {
+        // closing flushes the pending records into the old file
+        super.close();
+        try {
+            for (int generation = this.count - 2; generation >= 0; generation--) {
+                final var file = this.file(generation);
+                if (Files.exists(file)) {
+                    Files.move(file, this.file(generation + 1), StandardCopyOption.REPLACE_EXISTING);
+                }
+            }
+            Files.deleteIfExists(this.file(0));
+            this.open();
+        } catch (IOException exception) {
+            this.outputStream = null;
+            super.reportError("Unable to rotate the log file", exception, ErrorManager.OPEN_FAILURE);
+        }
+    }
+
+    @NotNull
+    private Path file(int generation) {
+        return this.baseFile.resolveSibling(this.baseFile.getFileName() + "." + generation);
+    }
+
+    private static final class CountingOutputStream extends BufferedOutputStream {
+
+        private long written;
+
+        private CountingOutputStream(OutputStream outputStream, long written) {
+            super(outputStream, 1 << 16);
+            this.written = written;
+        }
+
+        @Override
+        public synchronized void write(int b) throws IOException {
+            super.write(b);
+            this.written++;
+        }
+
+        @Override
+        public synchronized void write(@NotNull byte[] bytes, int offset, int length) throws IOException {
+            super.write(bytes, offset, length);
+            this.written += length;
+        }
+    }
+}
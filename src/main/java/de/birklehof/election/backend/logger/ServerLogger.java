@@ -24,6 +24,7 @@
  */
 package de.birklehof.election.backend.logger;
 
+import de.birklehof.election.backend.config.ServerConfiguration;
 import de.birklehof.election.backend.console.DefaultConsole;
 import org.jetbrains.annotations.NotNull;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -34,7 +35,9 @@ import java.io.PrintStream;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Paths;
-import java.util.logging.FileHandler;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Handler;
 import java.util.logging.Level;
 import java.util.logging.LogRecord;
 import java.util.logging.Logger;
@@ -42,48 +45,100 @@ import java.util.logging.Logger;
 @Component
 public class ServerLogger extends Logger {
 
-    private final RecordDispatcher recordDispatcher = new RecordDispatcher(this);
+    private final RecordDispatcher recordDispatcher;
+    private final boolean jsonLogging;
+    private final boolean requestLogging;
 
     @Autowired
-    public ServerLogger(@NotNull DefaultConsole console) {
+    public ServerLogger(@NotNull DefaultConsole console, @NotNull ServerConfiguration configuration) {
         super(ServerLogger.class.getName(), null);
         super.setLevel(Level.ALL);
+        this.recordDispatcher = new RecordDispatcher(
+            this,
+            configuration.getLogQueueCapacity(),
+            configuration.getLogOverflowPolicy(),
+            configuration.getLogSampleInterval()
+        );
+        this.jsonLogging = configuration.isJsonLogEnabled();
+        this.requestLogging = this.jsonLogging && configuration.isJsonLogRequests();
 
         try {
             Files.createDirectories(Paths.get("logs"));
 
-            FileHandler fileHandler = new FileHandler("logs/latest.log", 1 << 24, 8, true);
+            RotatingFileHandler fileHandler = new RotatingFileHandler(Paths.get("logs", "latest.log"), 1 << 24, 8);
             fileHandler.setLevel(super.getLevel());
-            fileHandler.setFormatter(new DefaultFormatter());
+            fileHandler.setFormatter(new DefaultFormatter(false));
             fileHandler.setEncoding(StandardCharsets.UTF_8.name());
+            fileHandler.setFilter(ServerLogger::isTextRecord);
             super.addHandler(fileHandler);
 
             ColouredWriter colouredWriter = new ColouredWriter(console.getLineReader());
             colouredWriter.setLevel(super.getLevel());
-            colouredWriter.setFormatter(new DefaultFormatter());
+            colouredWriter.setFormatter(new DefaultFormatter(true));
             colouredWriter.setEncoding(StandardCharsets.UTF_8.name());
+            colouredWriter.setFilter(ServerLogger::isTextRecord);
             super.addHandler(colouredWriter);
+
+            if (configuration.isJsonLogEnabled()) {
+                JsonLogHandler jsonLogHandler = new JsonLogHandler(
+                    Paths.get("logs", "latest.ndjson"),
+                    configuration.getJsonLogFileSize(),
+                    configuration.getJsonLogArchives(),
+                    configuration.getJsonLogFlushInterval()
+                );
+                jsonLogHandler.setLevel(super.getLevel());
+                super.addHandler(jsonLogHandler);
+            }
         } catch (IOException exception) {
             throw new RuntimeException("Unable to initialize logger", exception);
         }
 
-        System.setOut(new PrintStream(new LoggingOutputStream(this, Level.INFO), true));
-        System.setErr(new PrintStream(new LoggingOutputStream(this, Level.SEVERE), true));
+        // output containing one of the filters is not logged at all
+        System.setOut(new PrintStream(new LoggingOutputStream(this, Level.INFO, configuration.getLogLineFilters()), true, StandardCharsets.UTF_8));
+        System.setErr(new PrintStream(new LoggingOutputStream(this, Level.SEVERE, configuration.getLogLineFilters()), true, StandardCharsets.UTF_8));
 
         this.recordDispatcher.start();
     }
 
     @Override
     public void log(LogRecord record) {
-        this.recordDispatcher.queue(record);
+        // the thread name is not part of a plain record, it has to be taken before the record is queued
+        this.recordDispatcher.queue(this.jsonLogging && !(record instanceof StructuredLogRecord) ? StructuredLogRecord.of(record) : record);
+    }
+
+    // the record is only written to the json log
+    public void logStructured(@NotNull Level level, @NotNull String message, @NotNull Map<String, Object> fields) {
+        this.log(new StructuredLogRecord(level, message, fields, true));
+    }
+
+    public boolean isRequestLogging() {
+        return this.requestLogging;
+    }
+
+    public void flushRecords(@NotNull List<LogRecord> records) {
+        for (LogRecord record : records) {
+            super.log(record);
+        }
+
+        for (Handler handler : super.getHandlers()) {
+            handler.flush();
+        }
     }
 
-    public void flushRecord(LogRecord record) {
-        super.log(record);
+    public long getDroppedRecords() {
+        return this.recordDispatcher.getDroppedRecords();
     }
 
     public void close() throws InterruptedException {
         this.recordDispatcher.interrupt();
         this.recordDispatcher.join();
+
+        for (Handler handler : super.getHandlers()) {
+            handler.close();
+        }
+    }
+
+    private static boolean isTextRecord(@NotNull LogRecord record) {
+        return !(record instanceof StructuredLogRecord) || !((StructuredLogRecord) record).isStructuredOnly();
     }
 }
@@ -0,0 +1,76 @@
+/*
+ * This file is part of election-backend, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) Pasqual Koschmieder <https://github.com/derklaro>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package de.birklehof.election.backend.logger;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+
+// a record with fields for the json log, the thread name is taken when the record is created and not when it is written
+public class StructuredLogRecord extends LogRecord {
+
+    private final Map<String, Object> fields;
+    private final String threadName;
+    private final boolean structuredOnly;
+
+    public StructuredLogRecord(@NotNull Level level, @NotNull String message, @NotNull Map<String, Object> fields, boolean structuredOnly) {
+        super(level, message);
+        this.fields = fields;
+        this.threadName = Thread.currentThread().getName();
+        this.structuredOnly = structuredOnly;
+    }
+
+    // copies a plain record while still on the thread which logged it, the json log can show the name of that thread
+    @NotNull
+    public static StructuredLogRecord of(@NotNull LogRecord record) {
+        final var copy = new StructuredLogRecord(record.getLevel(), record.getMessage(), Map.of(), false);
+        copy.setInstant(record.getInstant());
+        copy.setSequenceNumber(record.getSequenceNumber());
+        copy.setThreadID(record.getThreadID());
+        copy.setLoggerName(record.getLoggerName());
+        copy.setParameters(record.getParameters());
+        copy.setThrown(record.getThrown());
+        copy.setResourceBundle(record.getResourceBundle());
+        copy.setResourceBundleName(record.getResourceBundleName());
+        return copy;
+    }
+
+    @NotNull
+    public Map<String, Object> getFields() {
+        return this.fields;
+    }
+
+    @NotNull
+    public String getThreadName() {
+        return this.threadName;
+    }
+
+    // records which are only written to the json log, for example one record per api request
+    public boolean isStructuredOnly() {
+        return this.structuredOnly;
+    }
+}
@@ -13,6 +13,7 @@ import com.google.api.client.util.store.FileDataStoreFactory;
 import com.google.api.services.gmail.Gmail;
 import com.google.api.services.gmail.GmailScopes;
 import com.google.api.services.gmail.model.Message;
+import de.birklehof.election.backend.jfr.MailSentEvent;
 import org.jetbrains.annotations.NotNull;
 
 import javax.mail.MessagingException;
@@ -29,15 +30,13 @@ import java.security.GeneralSecurityException;
 import java.util.List;
 import java.util.Properties;
 
-public final class GMailService {
+public class GMailService implements MailService {
 
-    private static final Gmail GMAIL_SERVICE = initialize();
-
-    private GMailService() {
-        throw new UnsupportedOperationException();
-    }
-
-    public static boolean sendMessage(@NotNull String to, @NotNull String subject, @NotNull String bodyText) {
+    @Override
+    public boolean sendMessage(@NotNull String to, @NotNull String subject, @NotNull String bodyText) {
+        final var event = new MailSentEvent();
+        event.begin();
+        event.subject = subject;
         try {
             var message = new MimeMessage(Session.getDefaultInstance(new Properties(), null));
             message.setFrom("birklehof.election@gmail.com");
@@ -51,12 +50,15 @@ public final class GMailService {
                 var mailMessage = new Message();
                 mailMessage.setRaw(Base64.encodeBase64URLSafeString(out.toByteArray()));
 
-                GMAIL_SERVICE.users().messages().send("me", mailMessage).execute();
+                GmailHolder.GMAIL_SERVICE.users().messages().send("me", mailMessage).execute();
+                event.success = true;
                 return true;
             }
         } catch (IOException | MessagingException exception) {
             exception.printStackTrace();
             return false;
+        } finally {
+            event.commit();
         }
     }
 
@@ -90,4 +92,10 @@ public final class GMailService {
             throw new RuntimeException("Unable to authorize with google api", exception);
         }
     }
+
+    // the authorization flow only runs when the first message is sent, not when the bean is created
+    private static final class GmailHolder {
+
+        private static final Gmail GMAIL_SERVICE = initialize();
+    }
 }
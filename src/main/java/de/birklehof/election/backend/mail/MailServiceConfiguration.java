@@ -0,0 +1,49 @@
+/*
+ * This file is part of election-backend, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) Pasqual Koschmieder <https://github.com/derklaro>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package de.birklehof.election.backend.mail;
+
+import de.birklehof.election.backend.config.ServerConfiguration;
+import de.birklehof.election.backend.fault.FaultInjectingMailService;
+import de.birklehof.election.backend.fault.FaultInjection;
+import org.jetbrains.annotations.NotNull;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class MailServiceConfiguration {
+
+    @Bean
+    public MailService mailService(@NotNull ServerConfiguration configuration, @NotNull FaultInjection faultInjection) {
+        final MailService mailService;
+        if (configuration.getMailTransport() == MailTransport.LOCAL) {
+            System.out.println("Using the local mail transport, no mails will be sent");
+            mailService = new LocalMailService();
+        } else {
+            mailService = new GMailService();
+        }
+
+        return faultInjection.isEnabled() ? new FaultInjectingMailService(mailService, faultInjection.getMailInjector()) : mailService;
+    }
+}
@@ -0,0 +1,75 @@
+/*
+ * This file is part of election-backend, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) Pasqual Koschmieder <https://github.com/derklaro>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package de.birklehof.election.backend.mail;
+
+import de.birklehof.election.backend.election.ElectionTables;
+import org.jetbrains.annotations.NotNull;
+
+public final class VerificationMail {
+
+    public static final String SUBJECT = "Election Verification";
+
+    private static final String VOTING_PAGE = "https://birklehofelection.github.io/vote/go.html?token=%s";
+    private static final String MESSAGE_BODY = "<html>Hi %s,<br><br>" +
+        "im Namen der Kandidaten bedanken wir uns, dass du an der Wahl teilnimmst. Bitte klicke <a href=\"%s\">hier</a>, um abzustimmen.<br><br>" +
+        "Mit freundlichen Grüßen<br>" +
+        "Charlie und Justus</html>";
+
+    private VerificationMail() {
+        throw new UnsupportedOperationException();
+    }
+
+    public static boolean validateEmailAddress(@NotNull String email) {
+        final var checkedEmail = email.toLowerCase();
+        if (!checkedEmail.endsWith("@s.birklehof.de")) {
+            return false;
+        }
+
+        var parts = checkedEmail.split("\\.");
+        if (parts.length < 4) {
+            return false;
+        }
+
+        return !parts[0].isBlank() && !parts[1].isBlank();
+    }
+
+    @NotNull
+    public static String parseFirstNameFromEmail(@NotNull String emailAddress) {
+        final var firstName = emailAddress.split("\\.")[0].toLowerCase();
+        final var firstDigit = firstName.charAt(0);
+        return firstName.replaceFirst(Character.toString(firstDigit), Character.toString(Character.toUpperCase(firstDigit)));
+    }
+
+    @NotNull
+    public static String buildMessage(@NotNull String email, @NotNull String electionId, @NotNull String token) {
+        return String.format(MESSAGE_BODY, parseFirstNameFromEmail(email), votingPage(electionId, token));
+    }
+
+    @NotNull
+    private static String votingPage(@NotNull String electionId, @NotNull String token) {
+        final var page = String.format(VOTING_PAGE, token);
+        return electionId.equals(ElectionTables.DEFAULT_ELECTION) ? page : page + "&election=" + electionId;
+    }
+}
@@ -0,0 +1,66 @@
+/*
+ * This file is part of election-backend, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) Pasqual Koschmieder <https://github.com/derklaro>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package de.birklehof.election.backend.metrics;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+public enum Endpoint {
+
+    REQUEST_TOKEN("/api/v1/requestToken", "request_token"),
+    VOTE("/api/v1/vote", "vote"),
+    VOTE_BALLOT("/api/v1/voteBallot", "vote_ballot"),
+    VALIDATE("/api/v1/validate", "validate");
+
+    private static final Endpoint[] VALUES = values();
+
+    private final String path;
+    private final String label;
+
+    Endpoint(String path, String label) {
+        this.path = path;
+        this.label = label;
+    }
+
+    @Nullable
+    public static Endpoint byPath(@NotNull String path) {
+        for (Endpoint endpoint : VALUES) {
+            if (endpoint.path.equals(path)) {
+                return endpoint;
+            }
+        }
+        return null;
+    }
+
+    @NotNull
+    public String getPath() {
+        return this.path;
+    }
+
+    @NotNull
+    public String getLabel() {
+        return this.label;
+    }
+}
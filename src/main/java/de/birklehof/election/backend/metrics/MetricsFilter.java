@@ -0,0 +1,95 @@
+/*
+ * This file is part of election-backend, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) Pasqual Koschmieder <https://github.com/derklaro>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package de.birklehof.election.backend.metrics;
+
+import de.birklehof.election.backend.logger.ServerLogger;
+import de.birklehof.election.backend.rest.RequestPaths;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.logging.Level;
+
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+// runs before the rate limit filter, rejected requests are part of the picture
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+public class MetricsFilter extends OncePerRequestFilter {
+
+    private final ServerLogger serverLogger;
+
+    @Autowired
+    public MetricsFilter(@NotNull ServerLogger serverLogger) {
+        this.serverLogger = serverLogger;
+    }
+
+    @Override
+    protected void doFilterInternal(@NotNull HttpServletRequest request, @NotNull HttpServletResponse response, @NotNull FilterChain filterChain) throws ServletException, IOException {
+        final var endpoint = Endpoint.byPath(RequestPaths.lookupPath(request));
+        if (endpoint == null || "OPTIONS".equals(request.getMethod())) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        final var start = System.nanoTime();
+        final var previous = RequestMetrics.enter(endpoint);
+        RequestMetrics.countRequest(endpoint);
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            final var nanos = System.nanoTime() - start;
+            RequestMetrics.record(endpoint, Phase.TOTAL, nanos);
+            RequestMetrics.restore(previous);
+
+            final var errorCode = RequestMetrics.takeErrorCode();
+            if (this.serverLogger.isRequestLogging()) {
+                this.logRequest(endpoint, response.getStatus(), errorCode, nanos);
+            }
+        }
+    }
+
+    private void logRequest(@NotNull Endpoint endpoint, int status, @Nullable Integer errorCode, long nanos) {
+        final Map<String, Object> fields = new LinkedHashMap<>();
+        fields.put("endpoint", endpoint.getLabel());
+        fields.put("latencyMs", nanos / 1_000_000D);
+        fields.put("status", status);
+        // responses without an api error code were not written by the api, for example a missing parameter or an exception
+        fields.put("outcome", errorCode == null ? "none" : errorCode == 0 ? "success" : "error");
+        fields.put("errorCode", errorCode);
+        this.serverLogger.logStructured(Level.INFO, "Request to " + endpoint.getPath(), fields);
+    }
+}
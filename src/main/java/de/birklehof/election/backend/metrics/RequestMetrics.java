@@ -0,0 +1,172 @@
+/*
+ * This file is part of election-backend, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) Pasqual Koschmieder <https://github.com/derklaro>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package de.birklehof.election.backend.metrics;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+public final class RequestMetrics {
+
+    private static final int SIGNIFICANT_DIGITS = 3;
+    private static final int MAX_ERROR_CODE = 15;
+    private static final double[] QUANTILES = {0.5, 0.9, 0.99, 0.999};
+    private static final double NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private static final Endpoint[] ENDPOINTS = Endpoint.values();
+    private static final Phase[] PHASES = Phase.values();
+    // the endpoint which is currently served by the thread, database and hashing time is attributed to it
+    private static final ThreadLocal<Endpoint> CURRENT_ENDPOINT = new ThreadLocal<>();
+    // the api error code of the current request, read by the metrics filter for the request log
+    private static final ThreadLocal<Integer> CURRENT_ERROR_CODE = new ThreadLocal<>();
+
+    // recording is wait-free, the recorders are only swapped out by the exporter
+    private static final Recorder[][] RECORDERS = new Recorder[ENDPOINTS.length][PHASES.length];
+    // cumulative histograms, only accessed by the exporter
+    private static final Histogram[][] HISTOGRAMS = new Histogram[ENDPOINTS.length][PHASES.length];
+    private static final LongAdder[] REQUESTS = new LongAdder[ENDPOINTS.length];
+    // index 0 counts successful responses, the others the api error codes
+    private static final LongAdder[][] RESPONSES = new LongAdder[ENDPOINTS.length][MAX_ERROR_CODE + 1];
+
+    static {
+        for (int endpoint = 0; endpoint < ENDPOINTS.length; endpoint++) {
+            for (int phase = 0; phase < PHASES.length; phase++) {
+                RECORDERS[endpoint][phase] = new Recorder(SIGNIFICANT_DIGITS);
+                HISTOGRAMS[endpoint][phase] = new Histogram(SIGNIFICANT_DIGITS);
+            }
+            REQUESTS[endpoint] = new LongAdder();
+            for (int errorCode = 0; errorCode <= MAX_ERROR_CODE; errorCode++) {
+                RESPONSES[endpoint][errorCode] = new LongAdder();
+            }
+        }
+    }
+
+    private RequestMetrics() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Nullable
+    public static Endpoint enter(@NotNull Endpoint endpoint) {
+        final var previous = CURRENT_ENDPOINT.get();
+        CURRENT_ENDPOINT.set(endpoint);
+        return previous;
+    }
+
+    public static void restore(@Nullable Endpoint previous) {
+        if (previous == null) {
+            CURRENT_ENDPOINT.remove();
+        } else {
+            CURRENT_ENDPOINT.set(previous);
+        }
+    }
+
+    @Nullable
+    public static Endpoint currentEndpoint() {
+        return CURRENT_ENDPOINT.get();
+    }
+
+    public static void record(@NotNull Phase phase, long nanos) {
+        final var endpoint = CURRENT_ENDPOINT.get();
+        if (endpoint != null) {
+            record(endpoint, phase, nanos);
+        }
+    }
+
+    public static void record(@NotNull Endpoint endpoint, @NotNull Phase phase, long nanos) {
+        RECORDERS[endpoint.ordinal()][phase.ordinal()].recordValue(Math.max(0, nanos));
+    }
+
+    public static void countRequest(@NotNull Endpoint endpoint) {
+        REQUESTS[endpoint.ordinal()].increment();
+    }
+
+    public static void countResponse(int errorCode) {
+        final var endpoint = CURRENT_ENDPOINT.get();
+        if (endpoint != null) {
+            RESPONSES[endpoint.ordinal()][Math.min(Math.max(errorCode, 0), MAX_ERROR_CODE)].increment();
+            CURRENT_ERROR_CODE.set(errorCode);
+        }
+    }
+
+    @Nullable
+    public static Integer takeErrorCode() {
+        final var errorCode = CURRENT_ERROR_CODE.get();
+        CURRENT_ERROR_CODE.remove();
+        return errorCode;
+    }
+
+    @NotNull
+    public static synchronized String exportPrometheus() {
+        final var builder = new StringBuilder(8192);
+        builder.append("# HELP election_request_duration_seconds Latency of the api requests split into phases\n");
+        builder.append("# TYPE election_request_duration_seconds summary\n");
+        for (Endpoint endpoint : ENDPOINTS) {
+            for (Phase phase : PHASES) {
+                final var histogram = HISTOGRAMS[endpoint.ordinal()][phase.ordinal()];
+                histogram.add(RECORDERS[endpoint.ordinal()][phase.ordinal()].getIntervalHistogram());
+
+                final var labels = "endpoint=\"" + endpoint.getLabel() + "\",phase=\"" + phase.getLabel() + "\"";
+                for (double quantile : QUANTILES) {
+                    builder.append("election_request_duration_seconds{").append(labels).append(",quantile=\"").append(quantile).append("\"} ")
+                        .append(histogram.getValueAtPercentile(quantile * 100) / NANOS_PER_SECOND).append('\n');
+                }
+                builder.append("election_request_duration_seconds_sum{").append(labels).append("} ")
+                    .append(histogram.getMean() * histogram.getTotalCount() / NANOS_PER_SECOND).append('\n');
+                builder.append("election_request_duration_seconds_count{").append(labels).append("} ").append(histogram.getTotalCount()).append('\n');
+            }
+        }
+
+        builder.append("# HELP election_request_duration_max_seconds Slowest recorded request phase\n");
+        builder.append("# TYPE election_request_duration_max_seconds gauge\n");
+        for (Endpoint endpoint : ENDPOINTS) {
+            for (Phase phase : PHASES) {
+                builder.append("election_request_duration_max_seconds{endpoint=\"").append(endpoint.getLabel()).append("\",phase=\"").append(phase.getLabel()).append("\"} ")
+                    .append(HISTOGRAMS[endpoint.ordinal()][phase.ordinal()].getMaxValue() / NANOS_PER_SECOND).append('\n');
+            }
+        }
+
+        builder.append("# HELP election_requests_total Requests received per endpoint\n");
+        builder.append("# TYPE election_requests_total counter\n");
+        for (Endpoint endpoint : ENDPOINTS) {
+            builder.append("election_requests_total{endpoint=\"").append(endpoint.getLabel()).append("\"} ").append(REQUESTS[endpoint.ordinal()].sum()).append('\n');
+        }
+
+        builder.append("# HELP election_responses_total Responses per endpoint and api error code, error 0 is a success\n");
+        builder.append("# TYPE election_responses_total counter\n");
+        for (Endpoint endpoint : ENDPOINTS) {
+            for (int errorCode = 0; errorCode <= MAX_ERROR_CODE; errorCode++) {
+                final var count = RESPONSES[endpoint.ordinal()][errorCode].sum();
+                if (count != 0) {
+                    builder.append("election_responses_total{endpoint=\"").append(endpoint.getLabel()).append("\",error=\"").append(errorCode).append("\"} ").append(count).append('\n');
+                }
+            }
+        }
+        return builder.toString();
+    }
+}
@@ -1,37 +1,78 @@
 package de.birklehof.election.backend.queued;
 
+import de.birklehof.election.backend.metrics.Phase;
+import de.birklehof.election.backend.metrics.RequestMetrics;
 import org.jetbrains.annotations.NotNull;
 
+import java.util.Map;
+import java.util.TreeMap;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.function.Supplier;
 
 public final class QueuedTaskExecutor {
 
-    private static final BlockingQueue<Runnable> TASK_QUEUE = new LinkedBlockingQueue<>();
-
-    static {
-        init();
-    }
+    private static final String DEFAULT_PARTITION = "default";
+    // every partition is drained by its own thread, tasks of different partitions never wait for each other
+    private static final Map<String, BlockingQueue<Runnable>> TASK_QUEUES = new ConcurrentHashMap<>();
 
     private QueuedTaskExecutor() {
         throw new UnsupportedOperationException();
     }
 
-    private static void init() {
+    @NotNull
+    private static BlockingQueue<Runnable> init(@NotNull String partition) {
+        final BlockingQueue<Runnable> taskQueue = new LinkedBlockingQueue<>();
         final var executingThread = new Thread(() -> {
             while (!Thread.interrupted()) {
                 try {
-                    TASK_QUEUE.take().run();
+                    taskQueue.take().run();
                 } catch (InterruptedException exception) {
                     Thread.currentThread().interrupt();
                 }
             }
-        }, "TaskExecutor");
+        }, partition.equals(DEFAULT_PARTITION) ? "TaskExecutor" : "TaskExecutor (" + partition + ")");
         executingThread.setDaemon(true);
         executingThread.start();
+        return taskQueue;
     }
 
     public static void queue(@NotNull Runnable runnable) {
-        TASK_QUEUE.add(runnable);
+        queue(DEFAULT_PARTITION, runnable);
+    }
+
+    public static void queue(@NotNull String partition, @NotNull Runnable runnable) {
+        TASK_QUEUES.computeIfAbsent(partition, QueuedTaskExecutor::init).add(runnable);
+    }
+
+    @NotNull
+    public static Map<String, Integer> getQueuedTasks() {
+        final Map<String, Integer> queuedTasks = new TreeMap<>();
+        TASK_QUEUES.forEach((partition, queue) -> queuedTasks.put(partition, queue.size()));
+        return queuedTasks;
+    }
+
+    @NotNull
+    public static <T> CompletableFuture<T> submit(@NotNull String partition, @NotNull Supplier<T> task) {
+        final CompletableFuture<T> future = new CompletableFuture<>();
+        final var endpoint = RequestMetrics.currentEndpoint();
+        final var queuedAt = System.nanoTime();
+        queue(partition, () -> {
+            if (endpoint != null) {
+                RequestMetrics.record(endpoint, Phase.QUEUE_WAIT, System.nanoTime() - queuedAt);
+                RequestMetrics.enter(endpoint);
+            }
+
+            try {
+                future.complete(task.get());
+            } catch (Throwable throwable) {
+                future.completeExceptionally(throwable);
+            } finally {
+                RequestMetrics.restore(null);
+            }
+        });
+        return future;
     }
 }
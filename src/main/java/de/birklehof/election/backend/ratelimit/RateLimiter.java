@@ -0,0 +1,108 @@
+/*
+ * This file is part of election-backend, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) Pasqual Koschmieder <https://github.com/derklaro>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package de.birklehof.election.backend.ratelimit;
+
+import java.util.concurrent.TimeUnit;
+
+// generic cell rate algorithm over a fixed size, lock striped open addressing table
+public class RateLimiter {
+
+    private static final int STRIPES = 64;
+    private static final int MAX_PROBES = 8;
+    private static final long EMPTY = 0;
+
+    private final long emissionInterval;
+    private final long burstTolerance;
+    private final int stripeSize;
+    private final long[] keys;
+    // theoretical arrival time per key, an entry whose arrival time has passed is expired and may be reused
+    private final long[] arrivals;
+    private final Object[] locks = new Object[STRIPES];
+
+    public RateLimiter(int requestsPerMinute, int burst, int capacity) {
+        if (requestsPerMinute <= 0 || burst <= 0) {
+            throw new IllegalArgumentException("Rate limits need at least one request per minute and a burst of at least one");
+        }
+
+        this.emissionInterval = TimeUnit.MINUTES.toNanos(1) / requestsPerMinute;
+        this.burstTolerance = this.emissionInterval * burst;
+        final var slotsPerStripe = Math.max(MAX_PROBES, (capacity + STRIPES - 1) / STRIPES);
+        this.stripeSize = Integer.highestOneBit(slotsPerStripe - 1) << 1;
+        this.keys = new long[this.stripeSize * STRIPES];
+        this.arrivals = new long[this.stripeSize * STRIPES];
+        for (int i = 0; i < STRIPES; i++) {
+            this.locks[i] = new Object();
+        }
+    }
+
+    // returns 0 if the request is allowed, otherwise the nanoseconds until the client may retry
+    public long tryAcquire(long clientKey, long now) {
+        final var key = clientKey == EMPTY ? 1 : clientKey;
+        final var hash = key * 0x9E3779B97F4A7C15L;
+        final var stripe = (int) (hash >>> 58) & (STRIPES - 1);
+        final var start = (int) hash & (this.stripeSize - 1);
+        final var base = stripe * this.stripeSize;
+
+        synchronized (this.locks[stripe]) {
+            var slot = -1;
+            var reusableSlot = -1;
+            var oldestSlot = -1;
+            for (int probe = 0; probe < MAX_PROBES; probe++) {
+                final var candidate = base + ((start + probe) & (this.stripeSize - 1));
+                final var candidateKey = this.keys[candidate];
+                if (candidateKey == key) {
+                    slot = candidate;
+                    break;
+                } else if (reusableSlot == -1 && (candidateKey == EMPTY || this.arrivals[candidate] <= now)) {
+                    reusableSlot = candidate;
+                } else if (oldestSlot == -1 || this.arrivals[candidate] < this.arrivals[oldestSlot]) {
+                    oldestSlot = candidate;
+                }
+            }
+
+            var arrival = now;
+            if (slot != -1) {
+                arrival = Math.max(this.arrivals[slot], now);
+            } else {
+                // the table never grows, a full probe window evicts the client closest to being fully recovered
+                slot = reusableSlot != -1 ? reusableSlot : oldestSlot;
+            }
+
+            final var nextArrival = arrival + this.emissionInterval;
+            final var allowedAt = nextArrival - this.burstTolerance;
+            if (allowedAt > now) {
+                return allowedAt - now;
+            }
+
+            this.keys[slot] = key;
+            this.arrivals[slot] = nextArrival;
+            return 0;
+        }
+    }
+
+    public int getCapacity() {
+        return this.keys.length;
+    }
+}
@@ -0,0 +1,133 @@
+/*
+ * This file is part of election-backend, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) Pasqual Koschmieder <https://github.com/derklaro>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package de.birklehof.election.backend.ratelimit;
+
+import de.birklehof.election.backend.config.ServerConfiguration;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// the limits of both web server modes, the filters only translate their request into a path and the client addresses
+@Component
+public class RateLimits {
+
+    private final boolean enabled;
+    private final String[] trustedProxies;
+    private final String[] paths;
+    private final RateLimiter[] limiters;
+
+    @Autowired
+    public RateLimits(ServerConfiguration configuration) {
+        this(configuration.isRateLimitEnabled(), configuration.getTrustedProxies(), configuration.getRateLimits(), configuration.getRateLimitTableSize());
+    }
+
+    RateLimits(boolean enabled, @NotNull List<String> trustedProxies, @NotNull List<RateLimitRule> rules, int tableSize) {
+        this.enabled = enabled;
+        this.trustedProxies = trustedProxies.toArray(String[]::new);
+        this.paths = new String[rules.size()];
+        this.limiters = new RateLimiter[rules.size()];
+        for (int i = 0; i < rules.size(); i++) {
+            final var rule = rules.get(i);
+            this.paths[i] = rule.getPath();
+            this.limiters[i] = new RateLimiter(rule.getRequestsPerMinute(), rule.getBurst(), tableSize);
+        }
+    }
+
+    // whole seconds for the retry-after header, rounded up so that a client never retries too early
+    public static long toRetryAfterSeconds(long retryAfterNanos) {
+        return Math.max(1, TimeUnit.NANOSECONDS.toSeconds(retryAfterNanos + TimeUnit.SECONDS.toNanos(1) - 1));
+    }
+
+    public boolean isEnabled() {
+        return this.enabled;
+    }
+
+    // returns 0 if the request is allowed, otherwise the nanoseconds until the client may retry
+    public long tryAcquire(@NotNull String path, @NotNull String remoteAddress, @Nullable String forwardedFor, long now) {
+        final var limiter = this.findLimiter(path);
+        return limiter == null ? 0 : limiter.tryAcquire(this.clientKey(remoteAddress, forwardedFor), now);
+    }
+
+    @Nullable
+    private RateLimiter findLimiter(@NotNull String path) {
+        for (int i = 0; i < this.paths.length; i++) {
+            if (this.paths[i].equals(path)) {
+                return this.limiters[i];
+            }
+        }
+        return null;
+    }
+
+    long clientKey(@NotNull String remoteAddress, @Nullable String forwardedFor) {
+        if (forwardedFor == null || !this.isTrustedProxy(remoteAddress, 0, remoteAddress.length())) {
+            return fingerprint(remoteAddress, 0, remoteAddress.length());
+        }
+
+        // the right-most address which is not one of our proxies is the client, everything left of it can be spoofed
+        var end = forwardedFor.length();
+        while (end > 0) {
+            final var start = forwardedFor.lastIndexOf(',', end - 1) + 1;
+            var addressStart = start;
+            var addressEnd = end;
+            while (addressStart < addressEnd && forwardedFor.charAt(addressStart) == ' ') {
+                addressStart++;
+            }
+            while (addressEnd > addressStart && forwardedFor.charAt(addressEnd - 1) == ' ') {
+                addressEnd--;
+            }
+
+            if (addressEnd > addressStart && !this.isTrustedProxy(forwardedFor, addressStart, addressEnd)) {
+                return fingerprint(forwardedFor, addressStart, addressEnd);
+            }
+            end = start - 1;
+        }
+
+        // every hop is a trusted proxy
+        return fingerprint(remoteAddress, 0, remoteAddress.length());
+    }
+
+    private boolean isTrustedProxy(@NotNull String address, int start, int end) {
+        for (String trustedProxy : this.trustedProxies) {
+            if (trustedProxy.length() == end - start && address.regionMatches(start, trustedProxy, 0, trustedProxy.length())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // 64 bit fnv-1a, hashes the address in place without creating a substring
+    static long fingerprint(@NotNull String address, int start, int end) {
+        var hash = 0xcbf29ce484222325L;
+        for (int i = start; i < end; i++) {
+            hash ^= address.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+}
@@ -0,0 +1,158 @@
+/*
+ * This file is part of election-backend, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) Pasqual Koschmieder <https://github.com/derklaro>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package de.birklehof.election.backend.reactive;
+
+import de.birklehof.election.backend.election.Election;
+import de.birklehof.election.backend.election.ElectionManager;
+import de.birklehof.election.backend.mail.MailService;
+import de.birklehof.election.backend.mail.VerificationMail;
+import de.birklehof.election.backend.queued.QueuedTaskExecutor;
+import de.birklehof.election.backend.rest.ApiResponses;
+import de.birklehof.election.backend.rest.EncodedResponse;
+import de.birklehof.election.backend.rest.VoteTasks;
+import de.birklehof.election.backend.user.Hashes;
+import org.jetbrains.annotations.NotNull;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveApiHandler {
+
+    private static final MediaType JSON = MediaType.parseMediaType(EncodedResponse.JSON_CONTENT_TYPE);
+
+    private final ElectionManager electionManager;
+    private final ReactiveMailService mailService;
+    private final Scheduler blockingScheduler = Schedulers.boundedElastic();
+    private final Map<String, ReactiveUserController> userControllers = new ConcurrentHashMap<>();
+
+    @Autowired
+    public ReactiveApiHandler(ElectionManager electionManager, MailService mailService) {
+        this.electionManager = electionManager;
+        this.mailService = new ReactiveMailService(mailService, this.blockingScheduler);
+    }
+
+    @NotNull
+    public Mono<ServerResponse> requestToken(@NotNull ServerRequest request) {
+        final var email = request.headers().firstHeader("email");
+        if (email == null) {
+            return ServerResponse.badRequest().build();
+        } else if (!VerificationMail.validateEmailAddress(email)) {
+            return respond(ApiResponses.INVALID_EMAIL_ADDRESS);
+        }
+
+        final var election = this.electionManager.getElection(request.headers().firstHeader("election")).orElse(null);
+        if (election == null) {
+            return respond(ApiResponses.UNKNOWN_ELECTION);
+        }
+
+        final var lowerEmail = email.toLowerCase();
+        return this.userController(election).generateToken(Hashes.sha256(lowerEmail))
+            .flatMap(token -> token.isEmpty()
+                ? Mono.just(ApiResponses.ALREADY_SENT)
+                : this.mailService.sendMessage(lowerEmail, VerificationMail.SUBJECT, VerificationMail.buildMessage(email, election.getId(), token.get()))
+                .map(sent -> sent ? ApiResponses.OK : ApiResponses.UNABLE_TO_SEND))
+            .flatMap(ReactiveApiHandler::respond);
+    }
+
+    @NotNull
+    public Mono<ServerResponse> vote(@NotNull ServerRequest request) {
+        final var token = request.headers().firstHeader("token");
+        final var votedTeam = request.headers().firstHeader("votedTeam");
+        final var votedTeamIdHeader = request.headers().firstHeader("votedTeamId");
+        if (token == null) {
+            return ServerResponse.badRequest().build();
+        }
+
+        final Integer votedTeamId;
+        try {
+            votedTeamId = votedTeamIdHeader == null ? null : Integer.valueOf(votedTeamIdHeader);
+        } catch (NumberFormatException exception) {
+            return ServerResponse.badRequest().build();
+        }
+
+        final var election = this.electionManager.getElection(request.headers().firstHeader("election")).orElse(null);
+        if (election == null) {
+            return respond(ApiResponses.UNKNOWN_ELECTION);
+        }
+
+        // the vote is queued like in servlet mode, the event loop only waits for the future instead of holding a thread
+        return Mono.defer(() -> Mono.fromFuture(QueuedTaskExecutor.submit(election.getId(), () -> VoteTasks.vote(election, token, votedTeam, votedTeamId))))
+            .flatMap(ReactiveApiHandler::respond);
+    }
+
+    @NotNull
+    public Mono<ServerResponse> validateToken(@NotNull ServerRequest request) {
+        final var token = request.headers().firstHeader("token");
+        if (token == null) {
+            return ServerResponse.badRequest().build();
+        }
+
+        return this.electionManager.getElection(request.headers().firstHeader("election"))
+            .map(election -> this.userController(election).validateToken(token).map(ApiResponses::validateResult).flatMap(ReactiveApiHandler::respond))
+            .orElseGet(() -> respond(ApiResponses.UNKNOWN_ELECTION));
+    }
+
+    @NotNull
+    public Mono<ServerResponse> results(@NotNull ServerRequest request) {
+        final var election = this.electionManager.getElection(request.queryParam("election").orElse(null)).orElse(null);
+        if (election == null) {
+            return respond(ApiResponses.UNKNOWN_ELECTION_NOT_FOUND);
+        }
+
+        // the snapshot is kept in memory, nothing here blocks
+        final var snapshot = election.getTeamController().getLeaderboard().getSnapshot();
+        final var eTag = snapshot.getETag();
+        if (eTag.equals(request.headers().firstHeader(HttpHeaders.IF_NONE_MATCH))) {
+            return ServerResponse.status(HttpStatus.NOT_MODIFIED).eTag(eTag).build();
+        }
+
+        final var body = snapshot.getJsonBytes();
+        return ServerResponse.ok().eTag(eTag).contentType(JSON).contentLength(body.length).bodyValue(body);
+    }
+
+    @NotNull
+    private ReactiveUserController userController(@NotNull Election election) {
+        return this.userControllers.computeIfAbsent(election.getId(), electionId -> new ReactiveUserController(election.getUserController(), this.blockingScheduler));
+    }
+
+    @NotNull
+    private static Mono<ServerResponse> respond(@NotNull EncodedResponse response) {
+        final var body = response.getBody();
+        return ServerResponse.status(response.getStatus()).contentType(JSON).contentLength(body.length).bodyValue(body);
+    }
+}
@@ -0,0 +1,55 @@
+/*
+ * This file is part of election-backend, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) Pasqual Koschmieder <https://github.com/derklaro>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package de.birklehof.election.backend.reactive;
+
+import de.birklehof.election.backend.mail.MailService;
+import de.birklehof.election.backend.metrics.Endpoint;
+import de.birklehof.election.backend.metrics.Phase;
+import de.birklehof.election.backend.metrics.RequestMetrics;
+import org.jetbrains.annotations.NotNull;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+public class ReactiveMailService {
+
+    private final MailService mailService;
+    private final Scheduler scheduler;
+
+    public ReactiveMailService(@NotNull MailService mailService, @NotNull Scheduler scheduler) {
+        this.mailService = mailService;
+        this.scheduler = scheduler;
+    }
+
+    @NotNull
+    public Mono<Boolean> sendMessage(@NotNull String to, @NotNull String subject, @NotNull String bodyText) {
+        return Mono.fromCallable(() -> {
+            final var start = System.nanoTime();
+            final var sent = this.mailService.sendMessage(to, subject, bodyText);
+            // the worker thread does not know the endpoint, only the token request sends mails
+            RequestMetrics.record(Endpoint.REQUEST_TOKEN, Phase.MAIL, System.nanoTime() - start);
+            return sent;
+        }).subscribeOn(this.scheduler);
+    }
+}
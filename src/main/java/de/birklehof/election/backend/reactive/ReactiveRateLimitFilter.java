@@ -0,0 +1,112 @@
+/*
+ * This file is part of election-backend, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) Pasqual Koschmieder <https://github.com/derklaro>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package de.birklehof.election.backend.reactive;
+
+import de.birklehof.election.backend.ratelimit.RateLimits;
+import de.birklehof.election.backend.rest.ApiResponses;
+import de.birklehof.election.backend.rest.EncodedResponse;
+import org.jetbrains.annotations.NotNull;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.PathContainer;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveRateLimitFilter implements WebFilter {
+
+    private static final String FORWARDED_FOR = "X-Forwarded-For";
+    private static final MediaType JSON = MediaType.parseMediaType(EncodedResponse.JSON_CONTENT_TYPE);
+
+    private final RateLimits rateLimits;
+
+    @Autowired
+    public ReactiveRateLimitFilter(RateLimits rateLimits) {
+        this.rateLimits = rateLimits;
+    }
+
+    @Override
+    public @NotNull Mono<Void> filter(@NotNull ServerWebExchange exchange, @NotNull WebFilterChain chain) {
+        final var request = exchange.getRequest();
+        // cors preflight requests must never use up the budget of the actual request
+        if (!this.rateLimits.isEnabled() || request.getMethod() == HttpMethod.OPTIONS) {
+            return chain.filter(exchange);
+        }
+
+        final var remoteAddress = request.getRemoteAddress();
+        if (remoteAddress == null) {
+            return chain.filter(exchange);
+        }
+
+        final var address = remoteAddress.getAddress() == null ? remoteAddress.getHostString() : remoteAddress.getAddress().getHostAddress();
+        final var retryAfter = this.rateLimits.tryAcquire(lookupPath(request), address, request.getHeaders().getFirst(FORWARDED_FOR), System.nanoTime());
+        if (retryAfter == 0) {
+            return chain.filter(exchange);
+        }
+
+        final var response = exchange.getResponse();
+        final var headers = response.getHeaders();
+        headers.set(HttpHeaders.RETRY_AFTER, Long.toString(RateLimits.toRetryAfterSeconds(retryAfter)));
+        if (request.getHeaders().getOrigin() != null) {
+            headers.set(HttpHeaders.ACCESS_CONTROL_ALLOW_ORIGIN, "*");
+            headers.set(HttpHeaders.ACCESS_CONTROL_EXPOSE_HEADERS, HttpHeaders.RETRY_AFTER);
+        }
+
+        final var body = ApiResponses.RATE_LIMITED.getBody();
+        response.setStatusCode(HttpStatus.valueOf(ApiResponses.RATE_LIMITED.getStatus()));
+        headers.setContentType(JSON);
+        headers.setContentLength(body.length);
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(body)));
+    }
+
+    // the path like the router sees it: decoded, without path parameters and without a trailing slash
+    @NotNull
+    private static String lookupPath(@NotNull ServerHttpRequest request) {
+        final var builder = new StringBuilder();
+        for (PathContainer.Element element : request.getPath().pathWithinApplication().elements()) {
+            if (element instanceof PathContainer.PathSegment) {
+                builder.append(((PathContainer.PathSegment) element).valueToMatch());
+            } else {
+                builder.append(element.value());
+            }
+        }
+
+        var end = builder.length();
+        while (end > 1 && builder.charAt(end - 1) == '/') {
+            end--;
+        }
+        builder.setLength(end);
+        return builder.toString();
+    }
+}
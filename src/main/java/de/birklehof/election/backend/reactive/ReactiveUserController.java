@@ -0,0 +1,55 @@
+/*
+ * This file is part of election-backend, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) Pasqual Koschmieder <https://github.com/derklaro>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package de.birklehof.election.backend.reactive;
+
+import de.birklehof.election.backend.user.TokenValidateResult;
+import de.birklehof.election.backend.user.UserController;
+import org.jetbrains.annotations.NotNull;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+import java.util.Optional;
+
+public class ReactiveUserController {
+
+    private final UserController userController;
+    private final Scheduler scheduler;
+
+    public ReactiveUserController(@NotNull UserController userController, @NotNull Scheduler scheduler) {
+        this.userController = userController;
+        this.scheduler = scheduler;
+    }
+
+    @NotNull
+    public Mono<Optional<String>> generateToken(@NotNull String userId) {
+        // the user controller blocks on the database, the event loop must never run it
+        return Mono.fromCallable(() -> this.userController.generateToken(userId)).subscribeOn(this.scheduler);
+    }
+
+    @NotNull
+    public Mono<TokenValidateResult> validateToken(@NotNull String token) {
+        return Mono.fromCallable(() -> this.userController.validateToken(token)).subscribeOn(this.scheduler);
+    }
+}
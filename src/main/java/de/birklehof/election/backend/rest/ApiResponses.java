@@ -0,0 +1,69 @@
+/*
+ * This file is part of election-backend, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) Pasqual Koschmieder <https://github.com/derklaro>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package de.birklehof.election.backend.rest;
+
+import com.github.derrop.documents.DefaultDocument;
+import de.birklehof.election.backend.user.TokenValidateResult;
+import org.jetbrains.annotations.NotNull;
+import org.springframework.http.HttpStatus;
+
+import javax.servlet.http.HttpServletResponse;
+
+public final class ApiResponses {
+
+    public static final EncodedResponse OK = EncodedResponse.of(new DefaultDocument("success", true));
+    public static final EncodedResponse UNKNOWN_TEAM = EncodedResponse.error(HttpServletResponse.SC_OK, 2);
+    public static final EncodedResponse ALREADY_SENT = EncodedResponse.error(HttpServletResponse.SC_OK, 4);
+    public static final EncodedResponse INVALID_TOKEN = EncodedResponse.error(HttpServletResponse.SC_OK, 6);
+    public static final EncodedResponse UNABLE_TO_SEND = EncodedResponse.error(HttpServletResponse.SC_OK, 3);
+    public static final EncodedResponse INVALID_EMAIL_ADDRESS = EncodedResponse.error(HttpServletResponse.SC_OK, 5);
+    public static final EncodedResponse ALREADY_VOTED = EncodedResponse.error(HttpServletResponse.SC_OK, 1);
+    public static final EncodedResponse INVALID_BALLOT = EncodedResponse.error(HttpServletResponse.SC_OK, 7);
+    public static final EncodedResponse UNKNOWN_ELECTION = EncodedResponse.error(HttpServletResponse.SC_OK, 8);
+    public static final EncodedResponse UNKNOWN_ELECTION_NOT_FOUND = EncodedResponse.error(HttpServletResponse.SC_NOT_FOUND, 8);
+    public static final EncodedResponse RATE_LIMITED = EncodedResponse.error(HttpStatus.TOO_MANY_REQUESTS.value(), 9);
+    public static final EncodedResponse UNABLE_TO_VOTE = EncodedResponse.error(HttpServletResponse.SC_SERVICE_UNAVAILABLE, 10);
+
+    private static final EncodedResponse[] VALIDATE_RESULTS = encodeValidateResults();
+
+    private ApiResponses() {
+        throw new UnsupportedOperationException();
+    }
+
+    @NotNull
+    public static EncodedResponse validateResult(@NotNull TokenValidateResult result) {
+        return VALIDATE_RESULTS[result.ordinal()];
+    }
+
+    @NotNull
+    private static EncodedResponse[] encodeValidateResults() {
+        final var results = TokenValidateResult.values();
+        final var encoded = new EncodedResponse[results.length];
+        for (TokenValidateResult result : results) {
+            encoded[result.ordinal()] = EncodedResponse.of(new DefaultDocument("status", result.ordinal()));
+        }
+        return encoded;
+    }
+}
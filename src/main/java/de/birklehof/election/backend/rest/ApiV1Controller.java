@@ -24,113 +24,175 @@
  */
 package de.birklehof.election.backend.rest;
 
-import com.github.derrop.documents.DefaultDocument;
-import com.google.common.hash.Hashing;
 import de.birklehof.election.backend.api.ApiController;
-import de.birklehof.election.backend.mail.GMailService;
+import de.birklehof.election.backend.ballot.BallotEngine;
+import de.birklehof.election.backend.election.ElectionManager;
+import de.birklehof.election.backend.jfr.VoteEvent;
+import de.birklehof.election.backend.mail.MailService;
+import de.birklehof.election.backend.mail.VerificationMail;
+import de.birklehof.election.backend.metrics.Phase;
+import de.birklehof.election.backend.metrics.RequestMetrics;
 import de.birklehof.election.backend.queued.QueuedTaskExecutor;
-import de.birklehof.election.backend.teams.SQLTeamController;
-import de.birklehof.election.backend.teams.TeamController;
-import de.birklehof.election.backend.user.SQLUserController;
-import de.birklehof.election.backend.user.UserController;
+import de.birklehof.election.backend.user.Hashes;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.http.ResponseEntity;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.*;
 
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
-import java.nio.charset.StandardCharsets;
-import java.util.concurrent.CompletableFuture;
+import java.io.IOException;
 
 @RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 @CrossOrigin("*")
 @RequestMapping("/api/v1")
-@SuppressWarnings("UnstableApiUsage")
 public class ApiV1Controller implements ApiController {
 
-    private static final String VOTING_PAGE = "https://birklehofelection.github.io/vote/go.html?token=%s";
-    private static final String MESSAGE_BODY = "<html>Hi %s,<br><br>" +
-        "im Namen der Kandidaten bedanken wir uns, dass du an der Wahl teilnimmst. Bitte klicke <a href=\"%s\">hier</a>, um abzustimmen.<br><br>" +
-        "Mit freundlichen Grüßen<br>" +
-        "Charlie und Justus</html>";
-
-    private static final ResponseEntity<String> OK = ResponseEntity.ok(new DefaultDocument("success", true).toJson());
-    private static final ResponseEntity<String> UNKNOWN_TEAM = ResponseEntity.ok(new DefaultDocument("success", false).append("error", 2).toJson());
-    private static final ResponseEntity<String> ALREADY_SENT = ResponseEntity.ok(new DefaultDocument("success", false).append("error", 4).toJson());
-    private static final ResponseEntity<String> INVALID_TOKEN = ResponseEntity.ok(new DefaultDocument("success", false).append("error", 6).toJson());
-    private static final ResponseEntity<String> UNABLE_TO_SEND = ResponseEntity.ok(new DefaultDocument("success", false).append("error", 3).toJson());
-    private static final ResponseEntity<String> INVALID_EMAIL_ADDRESS = ResponseEntity.ok(new DefaultDocument("success", false).append("error", 5).toJson());
-    private static final ResponseEntity<String> ALREADY_VOTED_RESPONSE = ResponseEntity.ok(new DefaultDocument("success", false).append("error", 1).toJson());
-
-    private final UserController userController;
-    private final TeamController teamController;
+    private final ElectionManager electionManager;
+    private final ResultStreamBroadcaster resultStreamBroadcaster;
+    private final MailService mailService;
 
     @Autowired
-    public ApiV1Controller(SQLUserController userController, SQLTeamController teamController) {
-        this.userController = userController;
-        this.teamController = teamController;
+    public ApiV1Controller(ElectionManager electionManager, ResultStreamBroadcaster resultStreamBroadcaster, MailService mailService) {
+        this.electionManager = electionManager;
+        this.resultStreamBroadcaster = resultStreamBroadcaster;
+        this.mailService = mailService;
     }
 
     @Override
     @PostMapping("/requestToken")
-    public @NotNull ResponseEntity<String> handleTokenRequest(@NotNull HttpServletRequest request, @NotNull HttpServletResponse response, @RequestHeader @NotNull String email) {
-        if (validateEmailAddress(email)) {
-            final var lowerEmail = email.toLowerCase();
-            return this.userController.generateToken(Hashing.sha256().hashString(lowerEmail, StandardCharsets.UTF_8).toString()).map(token -> {
-                final var text = String.format(MESSAGE_BODY, parseFirstNameFromEmail(email), String.format(VOTING_PAGE, token));
-                if (GMailService.sendMessage(lowerEmail, "Election Verification", text)) {
-                    return OK;
-                } else {
-                    return UNABLE_TO_SEND;
-                }
-            }).orElse(ALREADY_SENT);
+    public void handleTokenRequest(@NotNull HttpServletRequest request, @NotNull HttpServletResponse response, @RequestHeader @NotNull String email,
+                                   @Nullable @RequestHeader(required = false) String election) throws IOException {
+        if (VerificationMail.validateEmailAddress(email)) {
+            this.electionManager.getElection(election).map(targetElection -> {
+                final var lowerEmail = email.toLowerCase();
+                return targetElection.getUserController().generateToken(Hashes.sha256(lowerEmail)).map(token -> {
+                    final var text = VerificationMail.buildMessage(email, targetElection.getId(), token);
+                    final var mailStart = System.nanoTime();
+                    final var sent = this.mailService.sendMessage(lowerEmail, VerificationMail.SUBJECT, text);
+                    RequestMetrics.record(Phase.MAIL, System.nanoTime() - mailStart);
+                    if (sent) {
+                        return ApiResponses.OK;
+                    } else {
+                        return ApiResponses.UNABLE_TO_SEND;
+                    }
+                }).orElse(ApiResponses.ALREADY_SENT);
+            }).orElse(ApiResponses.UNKNOWN_ELECTION).write(response);
         } else {
-            return INVALID_EMAIL_ADDRESS;
+            ApiResponses.INVALID_EMAIL_ADDRESS.write(response);
         }
     }
 
     @Override
     @PostMapping("/vote")
-    public @NotNull ResponseEntity<String> vote(@NotNull HttpServletRequest request, @NotNull @RequestHeader String token, @NotNull @RequestHeader String votedTeam) {
-        final CompletableFuture<ResponseEntity<String>> future = new CompletableFuture<>();
-        QueuedTaskExecutor.queue(() -> future.complete(this.userController.getUserIdOfToken(token).map(userId -> {
-            if (this.userController.hasVoted(token)) {
-                return ALREADY_VOTED_RESPONSE;
-            } else {
-                return this.teamController.getTeamByName(votedTeam).map(team -> {
-                    this.userController.setHasVoted(token);
-                    team.increaseVotes();
-                    return OK;
-                }).orElse(UNKNOWN_TEAM);
-            }
-        }).orElse(INVALID_TOKEN)));
-        return future.join();
+    public void vote(@NotNull HttpServletRequest request, @NotNull HttpServletResponse response, @NotNull @RequestHeader String token,
+                     @Nullable @RequestHeader(required = false) String votedTeam,
+                     @Nullable @RequestHeader(required = false) Integer votedTeamId,
+                     @Nullable @RequestHeader(required = false) String election) throws IOException {
+        final var targetElection = this.electionManager.getElection(election).orElse(null);
+        if (targetElection == null) {
+            ApiResponses.UNKNOWN_ELECTION.write(response);
+            return;
+        }
+
+        final var event = new VoteEvent();
+        event.begin();
+        final var result = QueuedTaskExecutor.submit(targetElection.getId(), () -> VoteTasks.vote(targetElection, token, votedTeam, votedTeamId)).join();
+        commitVoteEvent(event, targetElection.getId(), false, result);
+        result.write(response);
+    }
+
+    @Override
+    @PostMapping("/voteBallot")
+    public void voteBallot(@NotNull HttpServletRequest request, @NotNull HttpServletResponse response, @NotNull @RequestHeader String token, @NotNull @RequestHeader String choices,
+                           @Nullable @RequestHeader(required = false) String election) throws IOException {
+        final var targetElection = this.electionManager.getElection(election).orElse(null);
+        if (targetElection == null) {
+            ApiResponses.UNKNOWN_ELECTION.write(response);
+            return;
+        }
+
+        final var event = new VoteEvent();
+        event.begin();
+        final int[] parsedChoices;
+        try {
+            parsedChoices = BallotEngine.parseChoices(choices);
+        } catch (NumberFormatException exception) {
+            commitVoteEvent(event, targetElection.getId(), true, ApiResponses.INVALID_BALLOT);
+            ApiResponses.INVALID_BALLOT.write(response);
+            return;
+        }
+
+        final var result = QueuedTaskExecutor.submit(targetElection.getId(), () -> VoteTasks.voteBallot(targetElection, token, parsedChoices)).join();
+        commitVoteEvent(event, targetElection.getId(), true, result);
+        result.write(response);
+    }
+
+    private static void commitVoteEvent(@NotNull VoteEvent event, @NotNull String electionId, boolean ballot, @NotNull EncodedResponse result) {
+        if (event.shouldCommit()) {
+            event.election = electionId;
+            event.ballot = ballot;
+            event.admitted = result.getErrorCode() == 0;
+            event.errorCode = result.getErrorCode();
+            event.commit();
+        }
     }
 
     @Override
     @PostMapping("/validate")
-    public @NotNull ResponseEntity<String> validateToken(@NotNull HttpServletRequest request, @NotNull @RequestHeader String token) {
-        return ResponseEntity.ok(new DefaultDocument("status", this.userController.validateToken(token).ordinal()).toJson());
+    public void validateToken(@NotNull HttpServletRequest request, @NotNull HttpServletResponse response, @NotNull @RequestHeader String token,
+                              @Nullable @RequestHeader(required = false) String election) throws IOException {
+        this.electionManager.getElection(election)
+            .map(targetElection -> ApiResponses.validateResult(targetElection.getUserController().validateToken(token)))
+            .orElse(ApiResponses.UNKNOWN_ELECTION)
+            .write(response);
     }
 
-    private static boolean validateEmailAddress(@NotNull String email) {
-        final var checkedEmail = email.toLowerCase();
-        if (!checkedEmail.endsWith("@s.birklehof.de")) {
-            return false;
+    // the read endpoints take the election as query parameter, it has to be part of the url for http caches and EventSource clients
+
+    @Override
+    @GetMapping("/results")
+    public void results(@NotNull HttpServletRequest request, @NotNull HttpServletResponse response, @Nullable @RequestParam(required = false) String election) throws IOException {
+        final var targetElection = this.electionManager.getElection(election).orElse(null);
+        if (targetElection == null) {
+            ApiResponses.UNKNOWN_ELECTION_NOT_FOUND.write(response);
+            return;
         }
 
-        var parts = checkedEmail.split("\\.");
-        if (parts.length < 4) {
-            return false;
+        final var snapshot = targetElection.getTeamController().getLeaderboard().getSnapshot();
+        final var eTag = snapshot.getETag();
+        response.setHeader(HttpHeaders.ETAG, eTag);
+        if (eTag.equals(request.getHeader(HttpHeaders.IF_NONE_MATCH))) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
         }
 
-        return !parts[0].isBlank() && !parts[1].isBlank();
+        EncodedResponse.writeJson(response, HttpServletResponse.SC_OK, snapshot.getJsonBytes());
+    }
+
+    @Override
+    @GetMapping(value = "/results/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public void resultStream(@NotNull HttpServletRequest request, @NotNull HttpServletResponse response, @Nullable @RequestParam(required = false) String election) throws IOException {
+        final var targetElection = this.electionManager.getElection(election).orElse(null);
+        if (targetElection == null) {
+            ApiResponses.UNKNOWN_ELECTION_NOT_FOUND.write(response);
+        } else {
+            this.resultStreamBroadcaster.subscribe(targetElection, request, response);
+        }
     }
 
-    private static String parseFirstNameFromEmail(@NotNull String emailAddress) {
-        final var firstName = emailAddress.split("\\.")[0].toLowerCase();
-        final var firstDigit = firstName.charAt(0);
-        return firstName.replaceFirst(Character.toString(firstDigit), Character.toString(Character.toUpperCase(firstDigit)));
+    @Override
+    @GetMapping("/results/ballots")
+    public void ballotResults(@NotNull HttpServletRequest request, @NotNull HttpServletResponse response, @Nullable @RequestParam(required = false) String election) throws IOException {
+        final var targetElection = this.electionManager.getElection(election).orElse(null);
+        if (targetElection == null) {
+            ApiResponses.UNKNOWN_ELECTION_NOT_FOUND.write(response);
+        } else {
+            EncodedResponse.writeJson(response, HttpServletResponse.SC_OK, targetElection.getBallotEngine().getResultJsonBytes());
+        }
     }
 }
@@ -0,0 +1,84 @@
+/*
+ * This file is part of election-backend, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) Pasqual Koschmieder <https://github.com/derklaro>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package de.birklehof.election.backend.rest;
+
+import com.github.derrop.documents.DefaultDocument;
+import de.birklehof.election.backend.metrics.RequestMetrics;
+import org.jetbrains.annotations.NotNull;
+
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+public final class EncodedResponse {
+
+    public static final String JSON_CONTENT_TYPE = "application/json;charset=UTF-8";
+
+    private final int status;
+    private final int errorCode;
+    private final byte[] body;
+
+    private EncodedResponse(int status, int errorCode, @NotNull byte[] body) {
+        this.status = status;
+        this.errorCode = errorCode;
+        this.body = body;
+    }
+
+    @NotNull
+    public static EncodedResponse of(@NotNull DefaultDocument document) {
+        return new EncodedResponse(HttpServletResponse.SC_OK, 0, document.toJson().getBytes(StandardCharsets.UTF_8));
+    }
+
+    @NotNull
+    public static EncodedResponse error(int status, int errorCode) {
+        return new EncodedResponse(status, errorCode, new DefaultDocument("success", false).append("error", errorCode).toJson().getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static void writeJson(@NotNull HttpServletResponse response, int status, @NotNull byte[] body) throws IOException {
+        // the body is written as it is, spring's message converters are not involved
+        response.setStatus(status);
+        response.setContentType(JSON_CONTENT_TYPE);
+        response.setContentLength(body.length);
+        response.getOutputStream().write(body);
+    }
+
+    public void write(@NotNull HttpServletResponse response) throws IOException {
+        RequestMetrics.countResponse(this.errorCode);
+        writeJson(response, this.status, this.body);
+    }
+
+    public int getStatus() {
+        return this.status;
+    }
+
+    public int getErrorCode() {
+        return this.errorCode;
+    }
+
+    @NotNull
+    public byte[] getBody() {
+        return this.body;
+    }
+}
@@ -0,0 +1,324 @@
+/*
+ * This file is part of election-backend, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) Pasqual Koschmieder <https://github.com/derklaro>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package de.birklehof.election.backend.rest;
+
+import de.birklehof.election.backend.config.ServerConfiguration;
+import de.birklehof.election.backend.election.Election;
+import de.birklehof.election.backend.teams.Leaderboard;
+import org.jetbrains.annotations.NotNull;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+
+import javax.servlet.AsyncContext;
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class ResultStreamBroadcaster {
+
+    // a subscriber whose socket accepted nothing for this many intervals is closed
+    private static final int STALLED_INTERVALS = 4;
+    // every line terminator the event stream format knows
+    private static final Pattern LINE_BREAK = Pattern.compile("\r\n|\r|\n");
+
+    private final long streamTimeout;
+    private final long stallTimeoutNanos;
+    // one channel per election which has subscribers, the channel is removed with its last subscriber
+    private final Map<String, Channel> channels = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService scheduler;
+
+    @Autowired
+    public ResultStreamBroadcaster(ServerConfiguration configuration) {
+        this(configuration.getResultStreamInterval(), configuration.getResultStreamTimeout());
+    }
+
+    ResultStreamBroadcaster(long interval, long streamTimeout) {
+        this.streamTimeout = streamTimeout;
+        this.stallTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(interval * STALLED_INTERVALS);
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            var thread = new Thread(runnable, "Result stream broadcaster");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.scheduler.scheduleAtFixedRate(this::broadcast, 0, interval, TimeUnit.MILLISECONDS);
+    }
+
+    public void subscribe(@NotNull Election election, @NotNull HttpServletRequest request, @NotNull HttpServletResponse response) throws IOException {
+        response.setStatus(HttpServletResponse.SC_OK);
+        response.setContentType(MediaType.TEXT_EVENT_STREAM_VALUE);
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "no-cache");
+
+        var asyncContext = request.startAsync();
+        asyncContext.setTimeout(this.streamTimeout);
+        this.subscribe(election.getId(), election.getTeamController().getLeaderboard(), asyncContext, response.getOutputStream());
+    }
+
+    void subscribe(@NotNull String channelId, @NotNull Leaderboard leaderboard, @NotNull AsyncContext asyncContext, @NotNull ServletOutputStream outputStream) {
+        var subscriber = new Subscriber(channelId, asyncContext, outputStream);
+        var channel = this.channels.compute(channelId, (key, existing) -> {
+            var target = existing == null ? new Channel(leaderboard) : existing;
+            target.subscribers.add(subscriber);
+            return target;
+        });
+
+        asyncContext.addListener(subscriber);
+        // nothing is written by a request thread, the container reports when the stream accepts data
+        outputStream.setWriteListener(subscriber);
+
+        var frame = channel.currentFrame;
+        if (frame != null) {
+            subscriber.offer(frame);
+        }
+    }
+
+    boolean hasChannel(@NotNull String channelId) {
+        return this.channels.containsKey(channelId);
+    }
+
+    @EventListener(ContextClosedEvent.class)
+    public void close() {
+        this.scheduler.shutdownNow();
+        // the open streams would otherwise hold back the graceful shutdown of the web server
+        for (Channel channel : this.channels.values()) {
+            for (Subscriber subscriber : channel.subscribers) {
+                subscriber.close();
+            }
+        }
+    }
+
+    @NotNull
+    static byte[] encodeEvent(long id, @NotNull String data) {
+        var builder = new StringBuilder(data.length() + 64).append("id:").append(id).append("\nevent:results\n");
+        // a line break inside a data field would end the event, every line of the payload gets its own field
+        for (String line : LINE_BREAK.split(data, -1)) {
+            builder.append("data:").append(line).append('\n');
+        }
+        return builder.append('\n').toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private void broadcast() {
+        for (Channel channel : this.channels.values()) {
+            try {
+                channel.broadcast(this.stallTimeoutNanos);
+            } catch (Throwable throwable) {
+                throwable.printStackTrace();
+            }
+        }
+    }
+
+    private void unsubscribe(@NotNull Subscriber subscriber) {
+        this.channels.computeIfPresent(subscriber.channelId, (channelId, channel) -> {
+            channel.subscribers.remove(subscriber);
+            return channel.subscribers.isEmpty() ? null : channel;
+        });
+    }
+
+    private static final class Frame {
+
+        private final long version;
+        private final byte[] data;
+
+        private Frame(@NotNull Leaderboard.Snapshot snapshot) {
+            this.version = snapshot.getVersion();
+            this.data = encodeEvent(snapshot.getVersion(), snapshot.getJson());
+        }
+    }
+
+    private static final class Channel {
+
+        private final Leaderboard leaderboard;
+        private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+
+        private volatile Frame currentFrame;
+
+        private Channel(Leaderboard leaderboard) {
+            this.leaderboard = leaderboard;
+        }
+
+        private void broadcast(long stallTimeoutNanos) {
+            var now = System.nanoTime();
+            for (Subscriber subscriber : this.subscribers) {
+                if (subscriber.isStalled(now, stallTimeoutNanos)) {
+                    subscriber.close();
+                }
+            }
+
+            var snapshot = this.leaderboard.getSnapshot();
+            var frame = this.currentFrame;
+            if (frame != null && frame.version == snapshot.getVersion()) {
+                return;
+            }
+
+            // serialize once, every subscriber gets the same encoded frame
+            this.currentFrame = frame = new Frame(snapshot);
+            for (Subscriber subscriber : this.subscribers) {
+                subscriber.offer(frame);
+            }
+        }
+    }
+
+    private final class Subscriber implements WriteListener, AsyncListener {
+
+        private final String channelId;
+        private final AsyncContext asyncContext;
+        private final ServletOutputStream outputStream;
+
+        // all state below is guarded by the subscriber, the container and the broadcaster call into it concurrently
+        private Frame pendingFrame;
+        private long offeredVersion = -1;
+        private boolean writable;
+        private boolean flushPending;
+        // since when the stream did not accept any data, 0 if it is not blocked
+        private long blockedSince;
+        private boolean closed;
+
+        private Subscriber(String channelId, AsyncContext asyncContext, ServletOutputStream outputStream) {
+            this.channelId = channelId;
+            this.asyncContext = asyncContext;
+            this.outputStream = outputStream;
+        }
+
+        private synchronized void offer(@NotNull Frame frame) {
+            // a subscriber which did not receive the previous frame yet only gets the latest one, the backlog is dropped
+            if (frame.version > this.offeredVersion) {
+                this.offeredVersion = frame.version;
+                this.pendingFrame = frame;
+                this.write();
+            }
+        }
+
+        private synchronized boolean isStalled(long now, long stallTimeoutNanos) {
+            return this.blockedSince != 0 && now - this.blockedSince > stallTimeoutNanos;
+        }
+
+        @Override
+        public synchronized void onWritePossible() {
+            this.writable = true;
+            this.write();
+        }
+
+        private void write() {
+            if (this.closed || !this.writable) {
+                return;
+            }
+
+            try {
+                var progressed = false;
+                while (this.outputStream.isReady()) {
+                    progressed = true;
+                    if (this.flushPending) {
+                        this.flushPending = false;
+                        this.outputStream.flush();
+                        continue;
+                    }
+
+                    var frame = this.pendingFrame;
+                    if (frame == null) {
+                        this.blockedSince = 0;
+                        return;
+                    }
+                    this.pendingFrame = null;
+                    this.outputStream.write(frame.data);
+                    this.flushPending = true;
+                }
+
+                // the container calls onWritePossible once the client read enough, until then no thread waits for it
+                if (progressed || this.blockedSince == 0) {
+                    this.blockedSince = System.nanoTime();
+                }
+            } catch (IOException exception) {
+                this.close();
+            }
+        }
+
+        private void close() {
+            if (this.detach()) {
+                try {
+                    // completes the response without waiting for the client, the connection is released by the container
+                    this.asyncContext.complete();
+                } catch (IllegalStateException exception) {
+                    // the request was completed by the container in the meantime
+                }
+            }
+        }
+
+        private boolean detach() {
+            synchronized (this) {
+                if (this.closed) {
+                    return false;
+                }
+                this.closed = true;
+                this.pendingFrame = null;
+            }
+
+            ResultStreamBroadcaster.this.unsubscribe(this);
+            return true;
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            this.close();
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            this.detach();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            this.close();
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            this.close();
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            // the stream is never dispatched again
+        }
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * This file is part of election-backend, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) Pasqual Koschmieder <https://github.com/derklaro>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package de.birklehof.election.backend.rest;
+
+import de.birklehof.election.backend.election.Election;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+// shared by the servlet and the reactive api, both run these on the queue of the election
+public final class VoteTasks {
+
+    private VoteTasks() {
+        throw new UnsupportedOperationException();
+    }
+
+    @NotNull
+    public static EncodedResponse vote(@NotNull Election election, @NotNull String token, @Nullable String votedTeam, @Nullable Integer votedTeamId) {
+        final var userController = election.getUserController();
+        return userController.getUserIdOfToken(token).map(userId -> {
+            if (userController.hasVoted(token)) {
+                return ApiResponses.ALREADY_VOTED;
+            } else {
+                return election.findTeam(votedTeam, votedTeamId).map(team -> {
+                    // the user is only marked once the ballot is stored, a failed insert can be retried
+                    if (!team.increaseVotes()) {
+                        return ApiResponses.UNABLE_TO_VOTE;
+                    }
+
+                    userController.setHasVoted(token);
+                    return ApiResponses.OK;
+                }).orElse(ApiResponses.UNKNOWN_TEAM);
+            }
+        }).orElse(ApiResponses.INVALID_TOKEN);
+    }
+
+    @NotNull
+    public static EncodedResponse voteBallot(@NotNull Election election, @NotNull String token, @NotNull int[] choices) {
+        final var userController = election.getUserController();
+        return userController.getUserIdOfToken(token).map(userId -> {
+            if (userController.hasVoted(token)) {
+                return ApiResponses.ALREADY_VOTED;
+            } else if (!election.getBallotEngine().isValid(choices)) {
+                return ApiResponses.INVALID_BALLOT;
+            } else if (election.getBallotEngine().cast(choices)) {
+                userController.setHasVoted(token);
+                return ApiResponses.OK;
+            } else {
+                return ApiResponses.UNABLE_TO_VOTE;
+            }
+        }).orElse(ApiResponses.INVALID_TOKEN);
+    }
+}
@@ -0,0 +1,104 @@
+/*
+ * This file is part of election-backend, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) Pasqual Koschmieder <https://github.com/derklaro>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package de.birklehof.election.backend.server;
+
+import de.birklehof.election.backend.config.ServerConfiguration;
+import org.apache.catalina.connector.Connector;
+import org.apache.coyote.http11.AbstractHttp11Protocol;
+import org.apache.coyote.http11.Http11Nio2Protocol;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.web.embedded.tomcat.TomcatServletWebServerFactory;
+import org.springframework.boot.web.server.Compression;
+import org.springframework.boot.web.server.Http2;
+import org.springframework.boot.web.server.WebServerFactoryCustomizer;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class BackendTomcatCustomizer implements WebServerFactoryCustomizer<TomcatServletWebServerFactory> {
+
+    // the result stream must never be compressed, tomcat would buffer the events until the compressor flushes
+    private static final String[] COMPRESSIBLE_MIME_TYPES = {"application/json", "text/html", "text/plain"};
+
+    private final ServerConfiguration configuration;
+
+    @Autowired
+    public BackendTomcatCustomizer(ServerConfiguration configuration) {
+        this.configuration = configuration;
+    }
+
+    @Override
+    public void customize(TomcatServletWebServerFactory factory) {
+        if (this.configuration.isWebServerNio2()) {
+            factory.setProtocol(Http11Nio2Protocol.class.getName());
+        }
+
+        if (this.configuration.isWebServerHttp2()) {
+            final var http2 = new Http2();
+            http2.setEnabled(true);
+            factory.setHttp2(http2);
+        }
+
+        if (this.configuration.isWebServerCompression()) {
+            final var compression = new Compression();
+            compression.setEnabled(true);
+            compression.setMinResponseSize(DataSize.ofBytes(this.configuration.getWebServerCompressionMinSize()));
+            compression.setMimeTypes(COMPRESSIBLE_MIME_TYPES);
+            factory.setCompression(compression);
+        }
+
+        factory.addConnectorCustomizers(this::customizeConnector);
+    }
+
+    private void customizeConnector(Connector connector) {
+        if (!(connector.getProtocolHandler() instanceof AbstractHttp11Protocol)) {
+            System.err.println("Unable to tune the connector, unsupported protocol handler " + connector.getProtocolHandler().getClass().getName());
+            return;
+        }
+
+        final var protocol = (AbstractHttp11Protocol<?>) connector.getProtocolHandler();
+        protocol.setMaxThreads(this.configuration.getWebServerMaxThreads());
+        protocol.setMinSpareThreads(this.configuration.getWebServerMinSpareThreads());
+        protocol.setAcceptCount(this.configuration.getWebServerAcceptCount());
+        protocol.setMaxConnections(this.configuration.getWebServerMaxConnections());
+        protocol.setConnectionTimeout(this.configuration.getWebServerConnectionTimeout());
+        protocol.setKeepAliveTimeout(this.configuration.getWebServerKeepAliveTimeout());
+        protocol.setMaxKeepAliveRequests(this.configuration.getWebServerMaxKeepAliveRequests());
+
+        // read back from the protocol handler, these are the values tomcat actually runs with
+        System.out.println("Web server connector: protocol=" + protocol.getClass().getSimpleName()
+            + ", maxThreads=" + protocol.getMaxThreads()
+            + ", minSpareThreads=" + protocol.getMinSpareThreads()
+            + ", acceptCount=" + protocol.getAcceptCount()
+            + ", maxConnections=" + protocol.getMaxConnections()
+            + ", connectionTimeout=" + protocol.getConnectionTimeout() + "ms"
+            + ", keepAliveTimeout=" + protocol.getKeepAliveTimeout() + "ms"
+            + ", maxKeepAliveRequests=" + protocol.getMaxKeepAliveRequests()
+            + ", http2=" + this.configuration.isWebServerHttp2()
+            + ", compression=" + (this.configuration.isWebServerCompression() ? ">=" + this.configuration.getWebServerCompressionMinSize() + " bytes" : "off"));
+    }
+}
@@ -0,0 +1,58 @@
+/*
+ * This file is part of election-backend, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) Pasqual Koschmieder <https://github.com/derklaro>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package de.birklehof.election.backend.server;
+
+import org.jetbrains.annotations.NotNull;
+import org.springframework.boot.WebApplicationType;
+
+public enum WebServerMode {
+
+    // thread per request on tomcat, the default
+    SERVLET(WebApplicationType.SERVLET),
+    // event loop on reactor netty
+    REACTIVE(WebApplicationType.REACTIVE);
+
+    private final WebApplicationType webApplicationType;
+
+    WebServerMode(WebApplicationType webApplicationType) {
+        this.webApplicationType = webApplicationType;
+    }
+
+    @NotNull
+    public static WebServerMode fromProperty() {
+        final var mode = System.getProperty("web-server-mode", SERVLET.name());
+        try {
+            return WebServerMode.valueOf(mode.toUpperCase());
+        } catch (IllegalArgumentException exception) {
+            System.err.println("Unknown web server mode " + mode + ", falling back to " + SERVLET.name().toLowerCase());
+            return SERVLET;
+        }
+    }
+
+    @NotNull
+    public WebApplicationType getWebApplicationType() {
+        return this.webApplicationType;
+    }
+}
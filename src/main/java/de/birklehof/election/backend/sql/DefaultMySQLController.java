@@ -28,26 +28,70 @@ import com.zaxxer.hikari.HikariConfig;
 import com.zaxxer.hikari.HikariDataSource;
 import de.birklehof.election.backend.config.ServerConfiguration;
 import org.jetbrains.annotations.NotNull;
-import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.stereotype.Component;
+import org.jetbrains.annotations.Nullable;
 
 import java.sql.SQLException;
+import java.sql.SQLNonTransientConnectionException;
+import java.sql.SQLTransientConnectionException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
-@Component
-public class DefaultMySQLController implements MySQLController {
+public class DefaultMySQLController extends HikariSQLController {
 
-    private final HikariDataSource dataSource;
+    private final List<Replica> replicas = new ArrayList<>();
+    private final AtomicInteger nextReplica = new AtomicInteger();
+    private final ScheduledExecutorService healthCheckExecutor;
 
-    @Autowired
-    public DefaultMySQLController(ServerConfiguration configuration) {
+    public DefaultMySQLController(@NotNull ServerConfiguration configuration) {
+        super(createConfig(configuration, configuration.getMysqlHost(), configuration.getMysqlPort()));
+
+        for (String endpoint : configuration.getMysqlReplicas()) {
+            var separator = endpoint.lastIndexOf(':');
+            var host = separator == -1 ? endpoint : endpoint.substring(0, separator);
+            var port = separator == -1 ? configuration.getMysqlPort() : Integer.parseInt(endpoint.substring(separator + 1));
+
+            var replicaConfig = createConfig(configuration, host, port);
+            replicaConfig.setPoolName("replica-" + endpoint);
+            replicaConfig.setReadOnly(true);
+            replicaConfig.setConnectionTimeout(1000);
+            // a replica which is down on startup should not prevent the backend from starting
+            replicaConfig.setInitializationFailTimeout(-1);
+
+            this.replicas.add(new Replica(endpoint, new HikariDataSource(replicaConfig)));
+        }
+
+        if (this.replicas.isEmpty()) {
+            this.healthCheckExecutor = null;
+        } else {
+            this.healthCheckExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                var thread = new Thread(runnable, "Replica health check");
+                thread.setDaemon(true);
+                return thread;
+            });
+            this.healthCheckExecutor.scheduleWithFixedDelay(
+                this::checkReplicas,
+                0,
+                configuration.getReplicaHealthCheckInterval(),
+                TimeUnit.SECONDS
+            );
+        }
+    }
+
+    @NotNull
+    private static HikariConfig createConfig(@NotNull ServerConfiguration configuration, @NotNull String host, int port) {
         HikariConfig hikariConfig = new HikariConfig();
 
         hikariConfig.setJdbcUrl(String.format(
             "jdbc:mysql://%s:%d/%s?serverTimezone=UTC",
-            configuration.getMysqlHost(),
-            configuration.getMysqlPort(),
+            host,
+            port,
             configuration.getMysqlDatabase()
         ));
+        hikariConfig.setPoolName("primary");
         hikariConfig.setDriverClassName("com.mysql.cj.jdbc.Driver");
         hikariConfig.setUsername(configuration.getMysqlUser());
         hikariConfig.setPassword(configuration.getMysqlPassword());
@@ -63,30 +107,102 @@ public class DefaultMySQLController implements MySQLController {
         hikariConfig.addDataSourceProperty("elideSetAutoCommits", "true");
         hikariConfig.addDataSourceProperty("maintainTimeStats", "false");
 
-        this.dataSource = new HikariDataSource(hikariConfig);
+        return hikariConfig;
     }
 
     @Override
-    public void executeUpdate(@NotNull String statement, @NotNull SQLConsumer modifier) {
-        try (var connection = this.dataSource.getConnection(); var preparedStatement = connection.prepareStatement(statement)) {
-            modifier.accept(preparedStatement);
-            preparedStatement.executeUpdate();
-        } catch (SQLException exception) {
-            exception.printStackTrace();
+    public <T> T executeQuery(@NotNull String query, @NotNull SQLConsumer modifier, @NotNull SQLFunction<T> mapper, T defaultValue) {
+        var replica = this.nextHealthyReplica();
+        if (replica != null) {
+            try {
+                return this.executeQuery(replica.dataSource, query, modifier, mapper, defaultValue);
+            } catch (SQLException exception) {
+                // a bad query or a mapper error says nothing about the replica, it stays in rotation
+                if (isConnectionError(exception)) {
+                    // the health check will re-enable the replica once it is reachable again
+                    replica.healthy = false;
+                }
+                System.err.println("Replica " + replica.endpoint + " failed, falling back to primary: " + exception.getMessage());
+            }
         }
+
+        return super.executeQuery(query, modifier, mapper, defaultValue);
     }
 
     @Override
-    public <T> T executeQuery(@NotNull String query, @NotNull SQLConsumer modifier, @NotNull SQLFunction<T> mapper, T defaultValue) {
-        try (var connection = this.dataSource.getConnection(); var preparedStatement = connection.prepareStatement(query)) {
-            modifier.accept(preparedStatement);
-            try (var resultSet = preparedStatement.executeQuery()) {
-                var result = mapper.apply(resultSet);
-                return result == null ? defaultValue : result;
+    public <T> T executePrimaryQuery(@NotNull String query, @NotNull SQLConsumer modifier, @NotNull SQLFunction<T> mapper, T defaultValue) {
+        return super.executeQuery(query, modifier, mapper, defaultValue);
+    }
+
+    @Override
+    public void close() {
+        if (this.healthCheckExecutor != null) {
+            this.healthCheckExecutor.shutdownNow();
+        }
+
+        for (Replica replica : this.replicas) {
+            replica.dataSource.close();
+        }
+
+        super.close();
+    }
+
+    @Nullable
+    private Replica nextHealthyReplica() {
+        var replicaCount = this.replicas.size();
+        if (replicaCount == 0) {
+            return null;
+        }
+
+        var start = Math.floorMod(this.nextReplica.getAndIncrement(), replicaCount);
+        for (int i = 0; i < replicaCount; i++) {
+            var replica = this.replicas.get((start + i) % replicaCount);
+            if (replica.healthy) {
+                return replica;
+            }
+        }
+
+        return null;
+    }
+
+    private static boolean isConnectionError(@NotNull SQLException exception) {
+        for (Throwable cause = exception; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SQLTransientConnectionException || cause instanceof SQLNonTransientConnectionException) {
+                return true;
+            }
+            // sql state class 08 is a connection exception
+            if (cause instanceof SQLException && ((SQLException) cause).getSQLState() != null && ((SQLException) cause).getSQLState().startsWith("08")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void checkReplicas() {
+        for (Replica replica : this.replicas) {
+            boolean healthy;
+            try (var connection = replica.dataSource.getConnection()) {
+                healthy = connection.isValid(2);
+            } catch (SQLException exception) {
+                healthy = false;
+            }
+
+            if (healthy != replica.healthy) {
+                replica.healthy = healthy;
+                System.out.println("Replica " + replica.endpoint + " is now " + (healthy ? "healthy" : "unhealthy"));
             }
-        } catch (SQLException exception) {
-            exception.printStackTrace();
-            return defaultValue;
+        }
+    }
+
+    private static final class Replica {
+
+        private final String endpoint;
+        private final HikariDataSource dataSource;
+        private volatile boolean healthy;
+
+        private Replica(String endpoint, HikariDataSource dataSource) {
+            this.endpoint = endpoint;
+            this.dataSource = dataSource;
         }
     }
 }
@@ -0,0 +1,54 @@
+/*
+ * This file is part of election-backend, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) Pasqual Koschmieder <https://github.com/derklaro>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package de.birklehof.election.backend.sql;
+
+import com.zaxxer.hikari.HikariConfig;
+import de.birklehof.election.backend.config.ServerConfiguration;
+import org.jetbrains.annotations.NotNull;
+
+public class EmbeddedSQLController extends HikariSQLController {
+
+    public EmbeddedSQLController(@NotNull ServerConfiguration configuration) {
+        super(createConfig(configuration));
+    }
+
+    @NotNull
+    private static HikariConfig createConfig(@NotNull ServerConfiguration configuration) {
+        HikariConfig hikariConfig = new HikariConfig();
+
+        // the h2 mysql mode understands the backtick quoted statements of the sql controllers
+        var databaseFile = configuration.getEmbeddedDatabaseFile();
+        hikariConfig.setJdbcUrl(String.format(
+            "jdbc:h2:%s;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+            databaseFile == null || databaseFile.isBlank() ? "mem:election" : "file:" + databaseFile
+        ));
+        hikariConfig.setPoolName("embedded");
+        hikariConfig.setDriverClassName("org.h2.Driver");
+        hikariConfig.setUsername("sa");
+        hikariConfig.setPassword("");
+
+        return hikariConfig;
+    }
+}
@@ -0,0 +1,131 @@
+/*
+ * This file is part of election-backend, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) Pasqual Koschmieder <https://github.com/derklaro>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package de.birklehof.election.backend.sql;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import de.birklehof.election.backend.fault.FaultInjector;
+import de.birklehof.election.backend.jfr.SQLStatementEvent;
+import de.birklehof.election.backend.metrics.Phase;
+import de.birklehof.election.backend.metrics.RequestMetrics;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+
+public abstract class HikariSQLController implements MySQLController {
+
+    protected final HikariDataSource dataSource;
+    // runs inside the timed section, the injected latency shows up in the database phase and the jfr events
+    private volatile FaultInjector faultInjector;
+
+    protected HikariSQLController(@NotNull HikariConfig hikariConfig) {
+        this.dataSource = new HikariDataSource(hikariConfig);
+    }
+
+    @Override
+    public boolean executeUpdate(@NotNull String statement, @NotNull SQLConsumer modifier) {
+        final var event = new SQLStatementEvent();
+        event.begin();
+        final var start = System.nanoTime();
+        try {
+            if (this.injectFault()) {
+                return false;
+            }
+
+            try (var connection = this.dataSource.getConnection(); var preparedStatement = connection.prepareStatement(statement)) {
+                modifier.accept(preparedStatement);
+                preparedStatement.executeUpdate();
+                event.success = true;
+                return true;
+            }
+        } catch (SQLException exception) {
+            exception.printStackTrace();
+            return false;
+        } finally {
+            RequestMetrics.record(Phase.DATABASE, System.nanoTime() - start);
+            commitEvent(event, this.dataSource, statement, false);
+        }
+    }
+
+    @Override
+    public <T> T executeQuery(@NotNull String query, @NotNull SQLConsumer modifier, @NotNull SQLFunction<T> mapper, T defaultValue) {
+        try {
+            return this.executeQuery(this.dataSource, query, modifier, mapper, defaultValue);
+        } catch (SQLException exception) {
+            exception.printStackTrace();
+            return defaultValue;
+        }
+    }
+
+    protected <T> T executeQuery(@NotNull DataSource dataSource, @NotNull String query, @NotNull SQLConsumer modifier,
+                                 @NotNull SQLFunction<T> mapper, T defaultValue) throws SQLException {
+        final var event = new SQLStatementEvent();
+        event.begin();
+        final var start = System.nanoTime();
+        try {
+            if (this.injectFault()) {
+                return defaultValue;
+            }
+
+            try (var connection = dataSource.getConnection(); var preparedStatement = connection.prepareStatement(query)) {
+                modifier.accept(preparedStatement);
+                try (var resultSet = preparedStatement.executeQuery()) {
+                    var result = mapper.apply(resultSet);
+                    event.success = true;
+                    return result == null ? defaultValue : result;
+                }
+            }
+        } finally {
+            RequestMetrics.record(Phase.DATABASE, System.nanoTime() - start);
+            commitEvent(event, dataSource, query, true);
+        }
+    }
+
+    private static void commitEvent(@NotNull SQLStatementEvent event, @NotNull DataSource dataSource, @NotNull String statement, boolean query) {
+        // the event is only filled when a recording is running and the threshold is exceeded
+        if (event.shouldCommit()) {
+            event.statement = statement;
+            event.pool = dataSource instanceof HikariDataSource ? ((HikariDataSource) dataSource).getPoolName() : null;
+            event.query = query;
+            event.commit();
+        }
+    }
+
+    public void setFaultInjector(@Nullable FaultInjector faultInjector) {
+        this.faultInjector = faultInjector;
+    }
+
+    public void close() {
+        this.dataSource.close();
+    }
+
+    // an injected failure behaves like a failing statement without the stack trace: updates are lost and queries return the default value
+    private boolean injectFault() {
+        final var faultInjector = this.faultInjector;
+        return faultInjector != null && faultInjector.inject();
+    }
+}
@@ -30,7 +30,13 @@ import org.springframework.stereotype.Component;
 @Component
 public interface MySQLController {
 
-    void executeUpdate(@NotNull String statement, @NotNull SQLConsumer modifier);
+    // returns false if the statement failed, the exception was already printed
+    boolean executeUpdate(@NotNull String statement, @NotNull SQLConsumer modifier);
 
     <T> T executeQuery(@NotNull String query, @NotNull SQLConsumer modifier, @NotNull SQLFunction<T> mapper, T defaultValue);
+
+    // reads which must observe the own writes (for example on the vote path) are never sent to a replica
+    default <T> T executePrimaryQuery(@NotNull String query, @NotNull SQLConsumer modifier, @NotNull SQLFunction<T> mapper, T defaultValue) {
+        return this.executeQuery(query, modifier, mapper, defaultValue);
+    }
 }
@@ -0,0 +1,252 @@
+/*
+ * This file is part of election-backend, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) Pasqual Koschmieder <https://github.com/derklaro>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package de.birklehof.election.backend.teams;
+
+import de.birklehof.election.backend.election.ElectionTables;
+import de.birklehof.election.backend.sql.MySQLController;
+import org.jetbrains.annotations.NotNull;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntFunction;
+
+public class BallotLedger {
+
+    private static final int BATCH_SIZE = 10_000;
+    private static final long GAP_TIMEOUT = TimeUnit.SECONDS.toMillis(30);
+    private static final int MAX_GAPS = 4096;
+    private static final int GAPS_PER_QUERY = 64;
+
+    private final MySQLController sqlController;
+    private final String ballotsTable;
+    private final TeamTally tally;
+    private final Leaderboard leaderboard;
+    private final IntFunction<Team> teamLookup;
+    private final ScheduledExecutorService aggregationExecutor;
+    // first skipped sequence number to the gap starting there, only accessed by the aggregation thread
+    private final TreeMap<Long, Gap> gaps = new TreeMap<>();
+
+    // only accessed by the aggregation thread after the totals were loaded
+    private long highWaterMark;
+
+    protected BallotLedger(MySQLController sqlController, ElectionTables tables, TeamTally tally, Leaderboard leaderboard, IntFunction<Team> teamLookup) {
+        this.sqlController = sqlController;
+        this.ballotsTable = tables.get("ballots");
+        this.tally = tally;
+        this.leaderboard = leaderboard;
+        this.teamLookup = teamLookup;
+        this.aggregationExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            var thread = new Thread(runnable, "Ballot aggregator (" + tables.getElectionId() + ")");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        this.sqlController.executeUpdate(
+            "CREATE TABLE IF NOT EXISTS `" + this.ballotsTable + "` (`seq` BIGINT AUTO_INCREMENT PRIMARY KEY, `ballot` CHAR(32) UNIQUE, `team` INT)",
+            statement -> {
+            }
+        );
+    }
+
+    // returns false if the ballot row could not be inserted, the vote was not counted then
+    public boolean cast(int teamId) {
+        // the ballot id is random and has no relation to the user who cast it
+        final var ballotId = UUID.randomUUID().toString().replace("-", "");
+        return this.sqlController.executeUpdate(
+            "INSERT INTO `" + this.ballotsTable + "` (`ballot`, `team`) VALUES (?, ?)",
+            statement -> {
+                statement.setString(1, ballotId);
+                statement.setInt(2, teamId);
+            }
+        );
+    }
+
+    public void deleteBallots(int teamId) {
+        this.sqlController.executeUpdate(
+            "DELETE FROM `" + this.ballotsTable + "` WHERE `team` = ?",
+            statement -> statement.setInt(1, teamId)
+        );
+    }
+
+    @NotNull
+    protected Map<Integer, Long> loadTotals() {
+        this.highWaterMark = this.sqlController.executePrimaryQuery(
+            "SELECT MAX(`seq`) AS `seq` FROM `" + this.ballotsTable + "`",
+            statement -> {
+            },
+            resultSet -> resultSet.next() ? resultSet.getLong("seq") : 0L,
+            0L
+        );
+        return this.sqlController.executePrimaryQuery(
+            "SELECT `team`, COUNT(*) AS `votes` FROM `" + this.ballotsTable + "` WHERE `seq` <= ? GROUP BY `team`",
+            statement -> statement.setLong(1, this.highWaterMark),
+            resultSet -> {
+                Map<Integer, Long> result = new HashMap<>();
+                while (resultSet.next()) {
+                    result.put(resultSet.getInt("team"), resultSet.getLong("votes"));
+                }
+                return result;
+            },
+            new HashMap<>()
+        );
+    }
+
+    protected void startAggregation(long interval) {
+        this.aggregationExecutor.scheduleWithFixedDelay(() -> {
+            try {
+                while (this.aggregate(System.currentTimeMillis())) {
+                    // a full batch was folded, there might be more ballots waiting
+                }
+            } catch (Throwable throwable) {
+                throwable.printStackTrace();
+            }
+        }, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    // folds the ballots committed since the last run into the tally, true if there might be more waiting
+    boolean aggregate(long now) {
+        final var votes = new long[this.tally.getCapacity()];
+        this.foldGaps(votes, now);
+
+        final List<long[]> ballots = this.sqlController.executePrimaryQuery(
+            "SELECT `seq`, `team` FROM `" + this.ballotsTable + "` WHERE `seq` > ? ORDER BY `seq` LIMIT " + BATCH_SIZE,
+            statement -> statement.setLong(1, this.highWaterMark),
+            BallotLedger::readBallots,
+            new ArrayList<>()
+        );
+        this.fold(ballots, votes, now);
+        return ballots.size() == BATCH_SIZE;
+    }
+
+    // advances the high water mark over the batch and applies it together with the filled gaps to the tally
+    void fold(@NotNull List<long[]> ballots, @NotNull long[] votes, long now) {
+        for (long[] ballot : ballots) {
+            if (ballot[0] > this.highWaterMark + 1) {
+                // an insert with a lower sequence number might not be committed yet, it is looked up again until the gap expires
+                this.gaps.put(this.highWaterMark + 1, new Gap(ballot[0] - 1, now));
+            }
+
+            this.highWaterMark = ballot[0];
+            count(votes, ballot);
+        }
+
+        for (int teamId = 0; teamId < votes.length; teamId++) {
+            if (votes[teamId] != 0 && this.teamLookup.apply(teamId) != null) {
+                this.tally.add(teamId, votes[teamId]);
+                this.leaderboard.markChanged(teamId);
+            }
+        }
+    }
+
+    private void foldGaps(@NotNull long[] votes, long now) {
+        // gaps which are left by deleted ballots or by failed inserts are never filled
+        this.gaps.values().removeIf(gap -> now - gap.detectionTime >= GAP_TIMEOUT);
+        if (this.gaps.size() > MAX_GAPS) {
+            System.err.println("Ballot aggregation of " + this.ballotsTable + " tracks " + this.gaps.size() + " gaps, dropping the oldest ones");
+            while (this.gaps.size() > MAX_GAPS) {
+                this.gaps.pollFirstEntry();
+            }
+        }
+
+        final List<Map.Entry<Long, Gap>> pending = new ArrayList<>(this.gaps.entrySet());
+        for (int offset = 0; offset < pending.size(); offset += GAPS_PER_QUERY) {
+            final var chunk = pending.subList(offset, Math.min(offset + GAPS_PER_QUERY, pending.size()));
+            final var query = new StringBuilder("SELECT `seq`, `team` FROM `").append(this.ballotsTable).append("` WHERE ");
+            for (int i = 0; i < chunk.size(); i++) {
+                query.append(i == 0 ? "" : " OR ").append("`seq` BETWEEN ? AND ?");
+            }
+
+            final List<long[]> ballots = this.sqlController.executePrimaryQuery(
+                query.toString(),
+                statement -> {
+                    for (int i = 0; i < chunk.size(); i++) {
+                        statement.setLong(2 * i + 1, chunk.get(i).getKey());
+                        statement.setLong(2 * i + 2, chunk.get(i).getValue().to);
+                    }
+                },
+                BallotLedger::readBallots,
+                new ArrayList<>()
+            );
+            for (long[] ballot : ballots) {
+                if (this.fill(ballot[0])) {
+                    count(votes, ballot);
+                }
+            }
+        }
+    }
+
+    // removes the sequence number from its gap, false if it was not part of one
+    private boolean fill(long seq) {
+        final var entry = this.gaps.floorEntry(seq);
+        if (entry == null || entry.getValue().to < seq) {
+            return false;
+        }
+
+        final var gap = entry.getValue();
+        this.gaps.remove(entry.getKey());
+        if (entry.getKey() < seq) {
+            this.gaps.put(entry.getKey(), new Gap(seq - 1, gap.detectionTime));
+        }
+        if (seq < gap.to) {
+            this.gaps.put(seq + 1, new Gap(gap.to, gap.detectionTime));
+        }
+        return true;
+    }
+
+    private static void count(@NotNull long[] votes, @NotNull long[] ballot) {
+        if (ballot[1] >= 0 && ballot[1] < votes.length) {
+            votes[(int) ballot[1]]++;
+        }
+    }
+
+    @NotNull
+    private static List<long[]> readBallots(@NotNull ResultSet resultSet) throws SQLException {
+        List<long[]> result = new ArrayList<>();
+        while (resultSet.next()) {
+            result.add(new long[]{resultSet.getLong("seq"), resultSet.getInt("team")});
+        }
+        return result;
+    }
+
+    private static final class Gap {
+
+        private final long to;
+        private final long detectionTime;
+
+        private Gap(long to, long detectionTime) {
+            this.to = to;
+            this.detectionTime = detectionTime;
+        }
+    }
+}
@@ -0,0 +1,213 @@
+/*
+ * This file is part of election-backend, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) Pasqual Koschmieder <https://github.com/derklaro>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package de.birklehof.election.backend.teams;
+
+import com.github.derrop.documents.DefaultDocument;
+import org.jetbrains.annotations.NotNull;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.IntFunction;
+
+public class Leaderboard {
+
+    private static final Comparator<Entry> RANKING_ORDER = Comparator.comparingInt(Entry::getVotes).reversed().thenComparing(Entry::getName);
+
+    private final long rebuildInterval;
+    private final IntFunction<Team> teamLookup;
+
+    // every change re-positions its team right away, a rebuild only copies the ranking
+    private final NavigableSet<Entry> ranking = new TreeSet<>(RANKING_ORDER);
+    // guarded by the ranking
+    private final Entry[] entries;
+
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+    private volatile boolean changed;
+
+    private volatile Snapshot snapshot = new Snapshot(0, 0, Collections.emptyList());
+
+    protected Leaderboard(long rebuildInterval, int capacity, @NotNull IntFunction<Team> teamLookup) {
+        this.rebuildInterval = rebuildInterval;
+        this.teamLookup = teamLookup;
+        this.entries = new Entry[capacity];
+    }
+
+    public void markChanged(int teamId) {
+        // called once per team and aggregation run or on registration and deletion, never once per vote
+        final var team = this.teamLookup.apply(teamId);
+        synchronized (this.ranking) {
+            final var previous = this.entries[teamId];
+            if (team != null && previous != null && previous.getVotes() == team.getVotes() && previous.getName().equals(team.getName())) {
+                return;
+            }
+
+            if (previous != null) {
+                this.ranking.remove(previous);
+                this.entries[teamId] = null;
+            }
+            if (team != null) {
+                final var entry = new Entry(team.getId(), team.getName(), team.getVotes(), 0);
+                this.entries[teamId] = entry;
+                this.ranking.add(entry);
+            }
+            this.changed = true;
+        }
+    }
+
+    @NotNull
+    public Snapshot getSnapshot() {
+        var snapshot = this.snapshot;
+        if (this.changed
+            && System.currentTimeMillis() - snapshot.getCreationTime() >= this.rebuildInterval
+            && this.rebuilding.compareAndSet(false, true)) {
+            try {
+                snapshot = this.snapshot = this.rebuild(snapshot.getVersion() + 1);
+            } finally {
+                this.rebuilding.set(false);
+            }
+        }
+
+        return snapshot;
+    }
+
+    @NotNull
+    private Snapshot rebuild(long version) {
+        final List<Entry> rankedEntries;
+        synchronized (this.ranking) {
+            this.changed = false;
+            rankedEntries = new ArrayList<>(this.ranking.size());
+            int rank = 0;
+            int previousVotes = -1;
+            for (Entry entry : this.ranking) {
+                if (entry.getVotes() != previousVotes) {
+                    rank = rankedEntries.size() + 1;
+                    previousVotes = entry.getVotes();
+                }
+                rankedEntries.add(new Entry(entry.getId(), entry.getName(), entry.getVotes(), rank));
+            }
+        }
+
+        // the json is encoded outside of the lock, the aggregator is never held up by a rebuild
+        return new Snapshot(version, System.currentTimeMillis(), Collections.unmodifiableList(rankedEntries));
+    }
+
+    public static final class Snapshot {
+
+        private final long version;
+        private final long creationTime;
+        private final List<Entry> ranking;
+        private final String json;
+        // encoded once per snapshot, the results endpoint writes these bytes as they are
+        private final byte[] jsonBytes;
+        private final String eTag;
+
+        private Snapshot(long version, long creationTime, @NotNull List<Entry> ranking) {
+            this.version = version;
+            this.creationTime = creationTime;
+            this.ranking = ranking;
+
+            List<Map<String, Object>> teams = new ArrayList<>(ranking.size());
+            for (Entry entry : ranking) {
+                Map<String, Object> team = new LinkedHashMap<>();
+                team.put("rank", entry.getRank());
+                team.put("id", entry.getId());
+                team.put("name", entry.getName());
+                team.put("votes", entry.getVotes());
+                teams.add(team);
+            }
+            this.json = new DefaultDocument("version", version).append("timestamp", creationTime).append("teams", teams).toJson();
+            this.jsonBytes = this.json.getBytes(StandardCharsets.UTF_8);
+            this.eTag = "\"" + version + "\"";
+        }
+
+        public long getVersion() {
+            return this.version;
+        }
+
+        public long getCreationTime() {
+            return this.creationTime;
+        }
+
+        @NotNull
+        public List<Entry> getRanking() {
+            return this.ranking;
+        }
+
+        @NotNull
+        public String getJson() {
+            return this.json;
+        }
+
+        @NotNull
+        public byte[] getJsonBytes() {
+            return this.jsonBytes;
+        }
+
+        @NotNull
+        public String getETag() {
+            return this.eTag;
+        }
+    }
+
+    public static final class Entry {
+
+        private final int id;
+        private final String name;
+        private final int votes;
+        private final int rank;
+
+        private Entry(int id, String name, int votes, int rank) {
+            this.id = id;
+            this.name = name;
+            this.votes = votes;
+            this.rank = rank;
+        }
+
+        public int getId() {
+            return this.id;
+        }
+
+        @NotNull
+        public String getName() {
+            return this.name;
+        }
+
+        public int getVotes() {
+            return this.votes;
+        }
+
+        public int getRank() {
+            return this.rank;
+        }
+    }
+}
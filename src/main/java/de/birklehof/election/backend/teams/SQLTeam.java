@@ -24,38 +24,36 @@
  */
 package de.birklehof.election.backend.teams;
 
-import de.birklehof.election.backend.sql.MySQLController;
 import org.jetbrains.annotations.NotNull;
 
-import java.util.concurrent.atomic.AtomicInteger;
-
 public class SQLTeam implements Team {
 
+    private final int id;
     private final String name;
-    private final MySQLController sqlController;
-    private final AtomicInteger votes = new AtomicInteger();
+    private final TeamTally tally;
+    private final BallotLedger ballotLedger;
 
-    protected SQLTeam(String name, int votes, MySQLController sqlController) {
+    protected SQLTeam(int id, String name, TeamTally tally, BallotLedger ballotLedger) {
+        this.id = id;
         this.name = name;
-        this.sqlController = sqlController;
-        this.votes.set(votes);
+        this.tally = tally;
+        this.ballotLedger = ballotLedger;
+    }
+
+    @Override
+    public int getId() {
+        return this.id;
     }
 
     @Override
-    public void increaseVotes() {
-        int newVotes = this.votes.incrementAndGet();
-        this.sqlController.executeUpdate(
-            "UPDATE `teams` SET `votes` = ? WHERE `name` = ?",
-            statement -> {
-                statement.setInt(1, newVotes);
-                statement.setString(2, this.name);
-            }
-        );
+    public boolean increaseVotes() {
+        // the tally is a projection of the ledger, the ballot is counted once the aggregator folded it
+        return this.ballotLedger.cast(this.id);
     }
 
     @Override
     public int getVotes() {
-        return this.votes.get();
+        return (int) this.tally.get(this.id);
     }
 
     @Override
@@ -65,6 +63,6 @@ public class SQLTeam implements Team {
 
     @Override
     public int compareTo(@NotNull Team o) {
-        return Integer.compare(this.votes.get(), o.getVotes());
+        return Integer.compare(this.getVotes(), o.getVotes());
     }
 }
@@ -24,81 +24,285 @@
  */
 package de.birklehof.election.backend.teams;
 
-import com.google.common.collect.Maps;
-import de.birklehof.election.backend.sql.DefaultMySQLController;
+import com.google.common.collect.ImmutableMap;
+import de.birklehof.election.backend.config.ServerConfiguration;
+import de.birklehof.election.backend.election.ElectionTables;
 import de.birklehof.election.backend.sql.MySQLController;
 import org.jetbrains.annotations.NotNull;
-import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.stereotype.Component;
+import org.jetbrains.annotations.Nullable;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 
-@Component
 public class SQLTeamController implements TeamController {
 
     private final MySQLController sqlController;
-    private final Map<String, Team> loadedTeams;
+    private final String electionId;
+    private final String teamsTable;
+    private final String teamIdsTable;
+    private final String teamVotesTable;
+    // the vote slots were replaced by the ballot ledger, the table is only read if an older version created it
+    private final boolean legacyVoteSlots;
+    private final int maxTeams;
+    private final TeamTally tally;
+    private final Leaderboard leaderboard;
+    private final BallotLedger ballotLedger;
+    // copy-on-write, replaced on every registration or deletion
+    private volatile TeamTable teamTable;
+    // ids are never reused, a ballot or a client holding the id of a deleted team must not count for a new one
+    private int nextTeamId;
 
-    @Autowired
-    public SQLTeamController(DefaultMySQLController sqlController) {
+    public SQLTeamController(MySQLController sqlController, ElectionTables tables, ServerConfiguration configuration) {
         this.sqlController = sqlController;
+        this.electionId = tables.getElectionId();
+        this.teamsTable = tables.get("teams");
+        this.teamIdsTable = tables.get("team_ids");
+        this.teamVotesTable = tables.get("team_votes");
+        this.maxTeams = configuration.getMaxTeams();
+        this.tally = new TeamTally(configuration.getMaxTeamIds());
+        this.leaderboard = new Leaderboard(configuration.getLeaderboardRebuildInterval(), this.tally.getCapacity(), this::lookupTeam);
+        this.ballotLedger = new BallotLedger(sqlController, tables, this.tally, this.leaderboard, this::lookupTeam);
+
+        this.sqlController.executeUpdate(
+            "CREATE TABLE IF NOT EXISTS `" + this.teamsTable + "` (`name` VARCHAR(50) PRIMARY KEY, `votes` INT)",
+            statement -> {
+            }
+        );
         this.sqlController.executeUpdate(
-            "CREATE TABLE IF NOT EXISTS `teams` (`name` VARCHAR(50) PRIMARY KEY, `votes` INT)",
+            "CREATE TABLE IF NOT EXISTS `" + this.teamIdsTable + "` (`id` INT PRIMARY KEY, `name` VARCHAR(50) UNIQUE)",
             statement -> {
             }
         );
-        // get all registered teams
-        this.loadedTeams = this.sqlController.executeQuery(
-            "SELECT * FROM `teams`",
+        this.legacyVoteSlots = this.tableExists(this.teamVotesTable);
+
+        this.teamTable = this.loadTeams();
+        for (Team team : this.teamTable.byName.values()) {
+            this.leaderboard.markChanged(team.getId());
+        }
+        this.ballotLedger.startAggregation(configuration.getBallotAggregationInterval());
+    }
+
+    @NotNull
+    private TeamTable loadTeams() {
+        // the votes column of the teams table and the vote slots only hold votes counted before the ballot ledger was introduced
+        // everything is loaded from the primary, a lagging replica would miss teams or votes for the rest of the run
+        final List<StoredTeam> storedTeams = this.sqlController.executePrimaryQuery(
+            "SELECT `t`.`name`, COALESCE(`t`.`votes`, 0) AS `votes`, `i`.`id` FROM `" + this.teamsTable + "` `t` LEFT JOIN `" + this.teamIdsTable + "` `i` ON `i`.`name` = `t`.`name`",
+            statement -> {
+            }, resultSet -> {
+                List<StoredTeam> result = new ArrayList<>();
+                while (resultSet.next()) {
+                    final var id = resultSet.getInt("id");
+                    result.add(new StoredTeam(resultSet.getString("name"), resultSet.getInt("votes"), resultSet.wasNull() ? -1 : id));
+                }
+                return result;
+            }, new ArrayList<>()
+        );
+        final Map<Integer, Long> slotVotes = !this.legacyVoteSlots ? Map.of() : this.sqlController.executePrimaryQuery(
+            "SELECT `team`, SUM(`votes`) AS `votes` FROM `" + this.teamVotesTable + "` GROUP BY `team`",
             statement -> {
             }, resultSet -> {
-                Map<String, Team> teams = Maps.newConcurrentMap();
+                Map<Integer, Long> result = new HashMap<>();
                 while (resultSet.next()) {
-                    final var name = resultSet.getString("name");
-                    teams.put(name, new SQLTeam(name, resultSet.getInt("votes"), sqlController));
+                    result.put(resultSet.getInt("team"), resultSet.getLong("votes"));
                 }
-                return teams;
-            }, Maps.newConcurrentMap()
+                return result;
+            }, new HashMap<>()
         );
+
+        final var ballotVotes = this.ballotLedger.loadTotals();
+        // the ids of deleted teams stay in the table without a name
+        this.nextTeamId = this.sqlController.executePrimaryQuery(
+            "SELECT MAX(`id`) AS `id` FROM `" + this.teamIdsTable + "`",
+            statement -> {
+            },
+            resultSet -> resultSet.next() ? resultSet.getInt("id") + 1 : 0,
+            0
+        );
+
+        var table = new TeamTable(new Team[this.tally.getCapacity()], ImmutableMap.of());
+        List<StoredTeam> withoutId = new ArrayList<>();
+        for (StoredTeam storedTeam : storedTeams) {
+            if (storedTeam.id == -1) {
+                withoutId.add(storedTeam);
+            } else if (storedTeam.id >= this.tally.getCapacity()) {
+                System.err.println("Skipping team " + storedTeam.name + " of election " + this.electionId + ", its id " + storedTeam.id + " is not below maxTeamIds");
+            } else {
+                final var votes = storedTeam.votes + slotVotes.getOrDefault(storedTeam.id, 0L) + ballotVotes.getOrDefault(storedTeam.id, 0L);
+                table = this.loadTeam(table, storedTeam.id, storedTeam.name, votes);
+            }
+        }
+
+        // teams created before the ids were introduced get the next id
+        for (StoredTeam storedTeam : withoutId) {
+            if (this.nextTeamId >= this.tally.getCapacity()) {
+                System.err.println("Skipping team " + storedTeam.name + " of election " + this.electionId + ", all " + this.tally.getCapacity() + " team ids are used up");
+                continue;
+            }
+            final var id = this.nextTeamId++;
+            this.insertTeamId(id, storedTeam.name);
+            table = this.loadTeam(table, id, storedTeam.name, storedTeam.votes);
+        }
+
+        return table;
+    }
+
+    @NotNull
+    private TeamTable loadTeam(@NotNull TeamTable table, int id, @NotNull String name, long votes) {
+        this.tally.set(id, votes);
+        return table.with(new SQLTeam(id, name, this.tally, this.ballotLedger));
+    }
+
+    @Override
+    public @NotNull String getElectionId() {
+        return this.electionId;
     }
 
     @Override
     public @NotNull Optional<Team> getTeamByName(@NotNull String teamName) {
-        return Optional.ofNullable(this.loadedTeams.get(teamName));
+        return Optional.ofNullable(this.teamTable.byName.get(teamName));
+    }
+
+    @Override
+    public @NotNull Optional<Team> getTeamById(int teamId) {
+        return Optional.ofNullable(this.lookupTeam(teamId));
     }
 
     @Override
-    public @NotNull Team registerTeam(@NotNull String name) {
-        var team = this.loadedTeams.get(name);
+    public synchronized @NotNull Team registerTeam(@NotNull String name) {
+        var team = this.teamTable.byName.get(name);
         if (team != null) {
             return team;
         }
 
-        team = new SQLTeam(name, 0, this.sqlController);
+        if (this.teamTable.byName.size() >= this.maxTeams) {
+            throw new IllegalStateException("Unable to register more than " + this.maxTeams + " teams, increase maxTeams in the configuration");
+        }
+        final var id = this.nextTeamId;
+        if (id >= this.tally.getCapacity()) {
+            throw new IllegalStateException("Unable to assign more than " + this.tally.getCapacity() + " team ids (ids of deleted teams are not reused), increase maxTeamIds in the configuration");
+        }
+        this.nextTeamId++;
+
         this.sqlController.executeUpdate(
-            "INSERT INTO `teams` (`name`, `votes`) VALUES (?, ?)",
+            "INSERT INTO `" + this.teamsTable + "` (`name`, `votes`) VALUES (?, ?)",
             statement -> {
                 statement.setString(1, name);
                 statement.setInt(2, 0);
             }
         );
-        this.loadedTeams.put(name, team);
+        this.insertTeamId(id, name);
+
+        this.tally.set(id, 0);
+        team = new SQLTeam(id, name, this.tally, this.ballotLedger);
+        this.teamTable = this.teamTable.with(team);
+        this.leaderboard.markChanged(id);
         return team;
     }
 
     @Override
-    public void deleteTeam(@NotNull String name) {
+    public synchronized void deleteTeam(@NotNull String name) {
+        final var team = this.teamTable.byName.get(name);
         this.sqlController.executeUpdate(
-            "DELETE FROM `teams` WHERE `name` = ?",
+            "DELETE FROM `" + this.teamsTable + "` WHERE `name` = ?",
             statement -> statement.setString(1, name)
         );
-        this.loadedTeams.remove(name);
+        this.sqlController.executeUpdate(
+            "UPDATE `" + this.teamIdsTable + "` SET `name` = NULL WHERE `name` = ?",
+            statement -> statement.setString(1, name)
+        );
+
+        if (team != null) {
+            if (this.legacyVoteSlots) {
+                this.sqlController.executeUpdate(
+                    "DELETE FROM `" + this.teamVotesTable + "` WHERE `team` = ?",
+                    statement -> statement.setInt(1, team.getId())
+                );
+            }
+            this.ballotLedger.deleteBallots(team.getId());
+            this.teamTable = this.teamTable.without(team);
+            this.leaderboard.markChanged(team.getId());
+        }
     }
 
     @Override
     public @NotNull Collection<Team> getRegisteredTeams() {
-        return this.loadedTeams.values();
+        return this.teamTable.byName.values();
+    }
+
+    @Override
+    public @NotNull Leaderboard getLeaderboard() {
+        return this.leaderboard;
+    }
+
+    @Nullable
+    private Team lookupTeam(int teamId) {
+        final var teams = this.teamTable.byId;
+        return teamId >= 0 && teamId < teams.length ? teams[teamId] : null;
+    }
+
+    private boolean tableExists(@NotNull String table) {
+        // unquoted so that both mysql and h2 resolve the information schema, SCHEMA() is the current database or the current h2 schema
+        return this.sqlController.executePrimaryQuery(
+            "SELECT COUNT(*) AS amount FROM information_schema.tables WHERE table_schema = SCHEMA() AND table_name = ?",
+            statement -> statement.setString(1, table),
+            resultSet -> resultSet.next() && resultSet.getInt("amount") > 0,
+            false
+        );
+    }
+
+    private void insertTeamId(int id, @NotNull String name) {
+        this.sqlController.executeUpdate(
+            "INSERT INTO `" + this.teamIdsTable + "` (`id`, `name`) VALUES (?, ?)",
+            statement -> {
+                statement.setInt(1, id);
+                statement.setString(2, name);
+            }
+        );
+    }
+
+    private static final class StoredTeam {
+
+        private final String name;
+        private final int votes;
+        private final int id;
+
+        private StoredTeam(String name, int votes, int id) {
+            this.name = name;
+            this.votes = votes;
+            this.id = id;
+        }
+    }
+
+    private static final class TeamTable {
+
+        private final Team[] byId;
+        private final Map<String, Team> byName;
+
+        private TeamTable(Team[] byId, Map<String, Team> byName) {
+            this.byId = byId;
+            this.byName = byName;
+        }
+
+        @NotNull
+        private TeamTable with(@NotNull Team team) {
+            var byId = this.byId.clone();
+            byId[team.getId()] = team;
+            return new TeamTable(byId, ImmutableMap.<String, Team>builder().putAll(this.byName).put(team.getName(), team).build());
+        }
+
+        @NotNull
+        private TeamTable without(@NotNull Team team) {
+            var byId = this.byId.clone();
+            byId[team.getId()] = null;
+
+            Map<String, Team> byName = new HashMap<>(this.byName);
+            byName.remove(team.getName());
+            return new TeamTable(byId, ImmutableMap.copyOf(byName));
+        }
     }
 }
@@ -28,7 +28,10 @@ import org.jetbrains.annotations.NotNull;
 
 public interface Team extends Comparable<Team> {
 
-    void increaseVotes();
+    int getId();
+
+    // false if the vote could not be stored
+    boolean increaseVotes();
 
     int getVotes();
 
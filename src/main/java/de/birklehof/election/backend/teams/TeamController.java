@@ -33,9 +33,15 @@ import java.util.Optional;
 @Component
 public interface TeamController {
 
+    @NotNull
+    String getElectionId();
+
     @NotNull
     Optional<Team> getTeamByName(@NotNull String teamName);
 
+    @NotNull
+    Optional<Team> getTeamById(int teamId);
+
     @NotNull
     Team registerTeam(@NotNull String name);
 
@@ -43,4 +49,7 @@ public interface TeamController {
 
     @NotNull
     Collection<Team> getRegisteredTeams();
+
+    @NotNull
+    Leaderboard getLeaderboard();
 }
@@ -0,0 +1,62 @@
+/*
+ * This file is part of election-backend, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) Pasqual Koschmieder <https://github.com/derklaro>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package de.birklehof.election.backend.teams;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+public class TeamTally {
+
+    // 16 longs are 128 bytes, two counters never share a cache line (or an adjacent line pulled in by the prefetcher)
+    private static final int PADDING = 16;
+
+    private final int capacity;
+    private final AtomicLongArray counters;
+
+    protected TeamTally(int capacity) {
+        this.capacity = capacity;
+        this.counters = new AtomicLongArray((capacity + 1) * PADDING);
+    }
+
+    public void add(int teamId, long votes) {
+        this.counters.getAndAdd(index(teamId), votes);
+    }
+
+    public void set(int teamId, long votes) {
+        this.counters.set(index(teamId), votes);
+    }
+
+    public long get(int teamId) {
+        return this.counters.get(index(teamId));
+    }
+
+    public int getCapacity() {
+        return this.capacity;
+    }
+
+    private static int index(int teamId) {
+        // the first slot is left empty so that the first counter is not next to the array header
+        return (teamId + 1) * PADDING;
+    }
+}
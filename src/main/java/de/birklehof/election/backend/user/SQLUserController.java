@@ -28,24 +28,23 @@ import com.google.common.base.Ticker;
 import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.CacheLoader;
 import com.google.common.cache.LoadingCache;
-import com.google.common.hash.Hashing;
-import de.birklehof.election.backend.sql.DefaultMySQLController;
+import de.birklehof.election.backend.election.ElectionTables;
+import de.birklehof.election.backend.jfr.TokenRequestEvent;
 import de.birklehof.election.backend.sql.MySQLController;
+import de.birklehof.election.backend.sql.SQLConsumer;
+import de.birklehof.election.backend.sql.SQLFunction;
 import org.jetbrains.annotations.NotNull;
-import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.stereotype.Component;
 
-import java.nio.charset.StandardCharsets;
 import java.util.Optional;
 import java.util.UUID;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
 
-@Component
-@SuppressWarnings("UnstableApiUsage")
 public class SQLUserController implements UserController {
 
     private final MySQLController sqlController;
+    private final String electionId;
+    private final String usersTable;
     private final LoadingCache<String, Boolean> voteCache = CacheBuilder.newBuilder()
         .expireAfterAccess(15, TimeUnit.MINUTES)
         .concurrencyLevel(4)
@@ -53,12 +52,7 @@ public class SQLUserController implements UserController {
         .build(new CacheLoader<>() {
             @Override
             public Boolean load(@NotNull String userId) {
-                return SQLUserController.this.sqlController.executeQuery(
-                    "SELECT `voted` FROM `users` WHERE `token` = ?",
-                    statement -> statement.setString(1, userId),
-                    resultSet -> resultSet.next() && resultSet.getBoolean("voted"),
-                    Boolean.FALSE
-                );
+                return SQLUserController.this.loadVoted(userId, false);
             }
         });
     private final LoadingCache<String, String> tokenCache = CacheBuilder.newBuilder()
@@ -68,8 +62,8 @@ public class SQLUserController implements UserController {
         .build(new CacheLoader<>() {
             @Override
             public String load(@NotNull String userId) throws Exception {
-                String token = SQLUserController.this.sqlController.executeQuery(
-                    "SELECT `token` FROM `users` WHERE `userId` = ?",
+                String token = SQLUserController.this.sqlController.executePrimaryQuery(
+                    "SELECT `token` FROM `" + SQLUserController.this.usersTable + "` WHERE `userId` = ?",
                     statement -> statement.setString(1, userId),
                     resultSet -> resultSet.next() ? resultSet.getString("token") : null,
                     null
@@ -82,27 +76,43 @@ public class SQLUserController implements UserController {
             }
         });
 
-    @Autowired
-    public SQLUserController(DefaultMySQLController sqlController) {
+    public SQLUserController(MySQLController sqlController, ElectionTables tables) {
         this.sqlController = sqlController;
+        this.electionId = tables.getElectionId();
+        this.usersTable = tables.get("users");
         this.sqlController.executeUpdate(
-            "CREATE TABLE IF NOT EXISTS `users` (`userId` VARCHAR(255) PRIMARY KEY, `token` VARCHAR(255), `voted` BOOL)",
+            "CREATE TABLE IF NOT EXISTS `" + this.usersTable + "` (`userId` VARCHAR(255) PRIMARY KEY, `token` VARCHAR(255), `voted` BOOL)",
             statement -> {
             }
         );
     }
 
+    @Override
+    public @NotNull String getElectionId() {
+        return this.electionId;
+    }
+
     @Override
     public boolean hasVoted(@NotNull String token) {
-        return this.voteCache.getUnchecked(Hashing.sha256().hashString(token, StandardCharsets.UTF_8).toString());
+        final var hashedToken = Hashes.sha256(token);
+        if (Boolean.TRUE.equals(this.voteCache.getIfPresent(hashedToken))) {
+            return true;
+        }
+
+        // the vote path must not trust a cached negative result which might have been read from a lagging replica
+        final var voted = this.loadVoted(hashedToken, true);
+        if (voted) {
+            this.voteCache.put(hashedToken, Boolean.TRUE);
+        }
+        return voted;
     }
 
     @Override
     public void setHasVoted(@NotNull String token) {
-        final var hashedToken = Hashing.sha256().hashString(token, StandardCharsets.UTF_8).toString();
+        final var hashedToken = Hashes.sha256(token);
         this.voteCache.put(hashedToken, Boolean.TRUE);
         this.sqlController.executeUpdate(
-            "UPDATE `users` SET `voted` = ? WHERE `token` = ?",
+            "UPDATE `" + this.usersTable + "` SET `voted` = ? WHERE `token` = ?",
             statement -> {
                 statement.setBoolean(1, Boolean.TRUE);
                 statement.setString(2, hashedToken);
@@ -112,16 +122,21 @@ public class SQLUserController implements UserController {
 
     @Override
     public @NotNull Optional<String> getUserIdOfToken(@NotNull String token) {
+        return this.findUserIdOfToken(token, true);
+    }
+
+    private @NotNull Optional<String> findUserIdOfToken(@NotNull String token, boolean primary) {
         try {
-            final var hashedToken = Hashing.sha256().hashString(token, StandardCharsets.UTF_8).toString();
+            final var hashedToken = Hashes.sha256(token);
             for (var entry : this.tokenCache.asMap().entrySet()) {
                 if (entry.getValue().equals(hashedToken)) {
                     return Optional.of(entry.getKey());
                 }
             }
 
-            final var userId = this.sqlController.executeQuery(
-                "SELECT `userId` FROM `users` WHERE `token` = ?",
+            final var userId = this.query(
+                primary,
+                "SELECT `userId` FROM `" + this.usersTable + "` WHERE `token` = ?",
                 statement -> statement.setString(1, hashedToken),
                 resultSet -> resultSet.next() ? resultSet.getString("userId") : null,
                 null
@@ -137,14 +152,18 @@ public class SQLUserController implements UserController {
 
     @Override
     public @NotNull Optional<String> generateToken(@NotNull String userId) {
+        final var event = new TokenRequestEvent();
+        event.begin();
+        event.election = this.electionId;
         try {
             this.tokenCache.get(userId);
+            event.commit();
             return Optional.empty();
         } catch (ExecutionException exception) {
             final var token = randomString() + randomString();
-            final var hashedToken = Hashing.sha256().hashString(token, StandardCharsets.UTF_8).toString();
+            final var hashedToken = Hashes.sha256(token);
             this.sqlController.executeUpdate(
-                "INSERT INTO `users` (`userId`, `token`, `voted`) VALUES (?, ?, ?)",
+                "INSERT INTO `" + this.usersTable + "` (`userId`, `token`, `voted`) VALUES (?, ?, ?)",
                 statement -> {
                     statement.setString(1, userId);
                     statement.setString(2, hashedToken);
@@ -152,18 +171,36 @@ public class SQLUserController implements UserController {
                 }
             );
             this.tokenCache.put(userId, hashedToken);
+            event.issued = true;
+            event.commit();
             return Optional.of(token);
         }
     }
 
     @Override
     public @NotNull TokenValidateResult validateToken(@NotNull String token) {
-        return this.getUserIdOfToken(token).map(userId -> {
-            final var hashedToken = Hashing.sha256().hashString(token, StandardCharsets.UTF_8).toString();
+        return this.findUserIdOfToken(token, false).map(userId -> {
+            final var hashedToken = Hashes.sha256(token);
             return this.voteCache.getUnchecked(hashedToken) ? TokenValidateResult.ALREADY_USED : TokenValidateResult.OK;
         }).orElse(TokenValidateResult.INVALID);
     }
 
+    private boolean loadVoted(@NotNull String hashedToken, boolean primary) {
+        return this.query(
+            primary,
+            "SELECT `voted` FROM `" + this.usersTable + "` WHERE `token` = ?",
+            statement -> statement.setString(1, hashedToken),
+            resultSet -> resultSet.next() && resultSet.getBoolean("voted"),
+            Boolean.FALSE
+        );
+    }
+
+    private <T> T query(boolean primary, @NotNull String query, @NotNull SQLConsumer modifier, @NotNull SQLFunction<T> mapper, T defaultValue) {
+        return primary
+            ? this.sqlController.executePrimaryQuery(query, modifier, mapper, defaultValue)
+            : this.sqlController.executeQuery(query, modifier, mapper, defaultValue);
+    }
+
     private static String randomString() {
         return UUID.randomUUID().toString().replace("-", "");
     }
@@ -32,6 +32,9 @@ import java.util.Optional;
 @Component
 public interface UserController {
 
+    @NotNull
+    String getElectionId();
+
     boolean hasVoted(@NotNull String token);
 
     void setHasVoted(@NotNull String token);
@@ -0,0 +1,54 @@
+/*
+ * This file is part of election-backend, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) Pasqual Koschmieder <https://github.com/derklaro>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package de.birklehof.election.backend.ballot;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+class MultiSelectionTallyTest {
+
+    @Test
+    void fillsSeatsWithMostSelectedTeams() {
+        var elected = MultiSelectionTally.elect(new int[]{4, 9, 1, 6}, new boolean[]{true, true, true, true}, 2);
+
+        Assertions.assertEquals(List.of(1, 3), elected);
+    }
+
+    @Test
+    void givesTiedSeatsToLowerId() {
+        var elected = MultiSelectionTally.elect(new int[]{2, 5, 5, 5}, new boolean[]{true, true, true, true}, 2);
+
+        Assertions.assertEquals(List.of(1, 2), elected);
+    }
+
+    @Test
+    void skipsIneligibleAndUnselectedTeams() {
+        var elected = MultiSelectionTally.elect(new int[]{0, 8, 3, 0}, new boolean[]{true, false, true, true}, 3);
+
+        Assertions.assertEquals(List.of(2), elected);
+    }
+}
@@ -0,0 +1,132 @@
+/*
+ * This file is part of election-backend, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) Pasqual Koschmieder <https://github.com/derklaro>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package de.birklehof.election.backend.ballot;
+
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+class RankedChoiceTallyTest {
+
+    @Test
+    void electsMajorityInFirstRound() {
+        var result = compute(allEligible(3), ballots(3, 0), ballots(2, 1));
+
+        Assertions.assertEquals(0, result.getWinner());
+        Assertions.assertEquals(1, result.getRounds().size());
+        Assertions.assertArrayEquals(new int[]{3, 2, 0}, result.getRounds().get(0).getCounts());
+        Assertions.assertEquals(-1, result.getRounds().get(0).getEliminated());
+    }
+
+    @Test
+    void movesBallotsOfEliminatedCandidateToNextPreference() {
+        var result = compute(allEligible(3), ballots(3, 0), ballots(2, 1), ballots(2, 2, 1));
+
+        Assertions.assertEquals(1, result.getWinner());
+        Assertions.assertEquals(2, result.getRounds().size());
+        Assertions.assertArrayEquals(new int[]{3, 2, 2}, result.getRounds().get(0).getCounts());
+        Assertions.assertEquals(2, result.getRounds().get(0).getEliminated());
+        Assertions.assertArrayEquals(new int[]{3, 4, 0}, result.getRounds().get(1).getCounts());
+        Assertions.assertEquals(0, result.getRounds().get(1).getExhausted());
+    }
+
+    @Test
+    void countsBallotsWithoutRemainingPreferenceAsExhausted() {
+        var result = compute(allEligible(3), ballots(3, 0), ballots(2, 1), ballots(2, 2));
+
+        Assertions.assertEquals(0, result.getWinner());
+        Assertions.assertEquals(2, result.getRounds().size());
+        Assertions.assertEquals(0, result.getRounds().get(0).getExhausted());
+        Assertions.assertArrayEquals(new int[]{3, 2, 0}, result.getRounds().get(1).getCounts());
+        Assertions.assertEquals(2, result.getRounds().get(1).getExhausted());
+    }
+
+    @Test
+    void breaksTiesByMostRecentDifferingRound() {
+        // after the first elimination 1 and 2 are tied, 1 had fewer votes in the first round
+        var result = compute(allEligible(4), ballots(5, 0), ballots(3, 2), ballots(2, 1), ballots(1, 3, 1));
+
+        Assertions.assertEquals(3, result.getRounds().size());
+        Assertions.assertEquals(3, result.getRounds().get(0).getEliminated());
+        Assertions.assertArrayEquals(new int[]{5, 3, 3, 0}, result.getRounds().get(1).getCounts());
+        Assertions.assertEquals(1, result.getRounds().get(1).getEliminated());
+        Assertions.assertArrayEquals(new int[]{5, 0, 3, 0}, result.getRounds().get(2).getCounts());
+        Assertions.assertEquals(3, result.getRounds().get(2).getExhausted());
+        Assertions.assertEquals(0, result.getWinner());
+    }
+
+    @Test
+    void eliminatesHigherIdOnCompleteTie() {
+        var result = compute(allEligible(2), ballots(1, 0), ballots(1, 1));
+
+        Assertions.assertEquals(1, result.getRounds().get(0).getEliminated());
+        Assertions.assertEquals(1, result.getRounds().get(1).getExhausted());
+        Assertions.assertEquals(0, result.getWinner());
+    }
+
+    @Test
+    void skipsIneligibleAndUnknownCandidates() {
+        var eligible = allEligible(3);
+        eligible[1] = false;
+        var result = compute(eligible, ballots(2, 1, 2), ballots(1, 7, 0), ballots(1, 0));
+
+        Assertions.assertArrayEquals(new int[]{2, 0, 2}, result.getRounds().get(0).getCounts());
+    }
+
+    @Test
+    void hasNoWinnerWithoutBallots() {
+        var result = compute(allEligible(3));
+
+        Assertions.assertEquals(-1, result.getWinner());
+        Assertions.assertEquals(1, result.getRounds().size());
+    }
+
+    @NotNull
+    private static RankedChoiceTally.Result compute(@NotNull boolean[] eligible, @NotNull int[][]... ballotGroups) {
+        var store = new BallotStore();
+        for (int[][] ballotGroup : ballotGroups) {
+            for (int[] ballot : ballotGroup) {
+                store.add(ballot);
+            }
+        }
+        return RankedChoiceTally.compute(store.snapshot(), eligible);
+    }
+
+    @NotNull
+    private static int[][] ballots(int count, @NotNull int... choices) {
+        var ballots = new int[count][];
+        Arrays.fill(ballots, choices);
+        return ballots;
+    }
+
+    @NotNull
+    private static boolean[] allEligible(int candidates) {
+        var eligible = new boolean[candidates];
+        Arrays.fill(eligible, true);
+        return eligible;
+    }
+}
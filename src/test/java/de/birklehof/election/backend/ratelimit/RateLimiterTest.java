@@ -0,0 +1,134 @@
+/*
+ * This file is part of election-backend, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) Pasqual Koschmieder <https://github.com/derklaro>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package de.birklehof.election.backend.ratelimit;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+class RateLimiterTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+    private static final long START = TimeUnit.HOURS.toNanos(1);
+
+    @Test
+    void allowsBurstAndThenRejects() {
+        // one request per second with a burst of three
+        var limiter = new RateLimiter(60, 3, 1024);
+
+        for (int i = 0; i < 3; i++) {
+            Assertions.assertEquals(0, limiter.tryAcquire(1, START));
+        }
+        Assertions.assertEquals(SECOND, limiter.tryAcquire(1, START));
+        // a rejected request does not use up any budget
+        Assertions.assertEquals(SECOND / 2, limiter.tryAcquire(1, START + SECOND / 2));
+    }
+
+    @Test
+    void refillsOneRequestPerEmissionInterval() {
+        var limiter = new RateLimiter(60, 2, 1024);
+        limiter.tryAcquire(1, START);
+        limiter.tryAcquire(1, START);
+
+        Assertions.assertEquals(0, limiter.tryAcquire(1, START + SECOND));
+        Assertions.assertNotEquals(0, limiter.tryAcquire(1, START + SECOND));
+
+        // after a full recovery the whole burst is available again
+        Assertions.assertEquals(0, limiter.tryAcquire(1, START + 4 * SECOND));
+        Assertions.assertEquals(0, limiter.tryAcquire(1, START + 4 * SECOND));
+        Assertions.assertNotEquals(0, limiter.tryAcquire(1, START + 4 * SECOND));
+    }
+
+    @Test
+    void limitsClientsIndependently() {
+        var limiter = new RateLimiter(60, 1, 1024);
+
+        Assertions.assertEquals(0, limiter.tryAcquire(1, START));
+        Assertions.assertNotEquals(0, limiter.tryAcquire(1, START));
+        Assertions.assertEquals(0, limiter.tryAcquire(2, START));
+    }
+
+    @Test
+    void limitsClientWithEmptyMarkerKey() {
+        // key 0 marks empty slots, it must not be stored as it is
+        var limiter = new RateLimiter(60, 1, 1024);
+
+        Assertions.assertEquals(0, limiter.tryAcquire(0, START));
+        Assertions.assertNotEquals(0, limiter.tryAcquire(0, START));
+    }
+
+    @Test
+    void evictsClientClosestToRecoveryWhenProbeWindowIsFull() {
+        // the smallest table has eight slots per stripe, all of them are inside the probe window
+        var limiter = new RateLimiter(60, 1, 1);
+        var keys = keysInSameStripe(9);
+        for (int i = 0; i < 8; i++) {
+            Assertions.assertEquals(0, limiter.tryAcquire(keys[i], START + i));
+        }
+
+        // the ninth client still gets in, the first client lost its state
+        Assertions.assertEquals(0, limiter.tryAcquire(keys[8], START + 8));
+        Assertions.assertEquals(0, limiter.tryAcquire(keys[0], START + 9));
+        // the most recent clients are still limited
+        Assertions.assertNotEquals(0, limiter.tryAcquire(keys[7], START + 10));
+        Assertions.assertNotEquals(0, limiter.tryAcquire(keys[8], START + 10));
+    }
+
+    @Test
+    void reusesExpiredSlots() {
+        var limiter = new RateLimiter(60, 1, 1);
+        var keys = keysInSameStripe(16);
+        for (int i = 0; i < 8; i++) {
+            limiter.tryAcquire(keys[i], START);
+        }
+
+        // every entry is fully recovered, the new clients replace them without evicting a limited one
+        for (int i = 8; i < 16; i++) {
+            Assertions.assertEquals(0, limiter.tryAcquire(keys[i], START + SECOND));
+        }
+        for (int i = 8; i < 16; i++) {
+            Assertions.assertNotEquals(0, limiter.tryAcquire(keys[i], START + SECOND));
+        }
+    }
+
+    @Test
+    void rejectsInvalidRules() {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new RateLimiter(0, 1, 1));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new RateLimiter(1, 0, 1));
+    }
+
+    private static long[] keysInSameStripe(int count) {
+        // mirrors the stripe selection of the limiter
+        var keys = new long[count];
+        var found = 0;
+        for (long key = 1; found < count; key++) {
+            if ((int) ((key * 0x9E3779B97F4A7C15L) >>> 58) == 0) {
+                keys[found++] = key;
+            }
+        }
+        return keys;
+    }
+}
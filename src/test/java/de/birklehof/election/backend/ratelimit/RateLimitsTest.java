@@ -0,0 +1,84 @@
+/*
+ * This file is part of election-backend, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) Pasqual Koschmieder <https://github.com/derklaro>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package de.birklehof.election.backend.ratelimit;
+
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+class RateLimitsTest {
+
+    private static final String PROXY = "10.0.0.1";
+    private static final String INNER_PROXY = "10.0.0.2";
+
+    private final RateLimits rateLimits = new RateLimits(true, List.of(PROXY, INNER_PROXY), List.of(new RateLimitRule("/api/v1/vote", 60, 1)), 1024);
+
+    @Test
+    void ignoresForwardedForFromUntrustedPeers() {
+        Assertions.assertEquals(key("1.2.3.4"), this.rateLimits.clientKey("1.2.3.4", "5.6.7.8"));
+        Assertions.assertEquals(key("1.2.3.4"), this.rateLimits.clientKey("1.2.3.4", null));
+    }
+
+    @Test
+    void usesRightMostUntrustedAddress() {
+        Assertions.assertEquals(key("5.6.7.8"), this.rateLimits.clientKey(PROXY, "5.6.7.8"));
+        Assertions.assertEquals(key("5.6.7.8"), this.rateLimits.clientKey(PROXY, "9.9.9.9, 5.6.7.8 , " + INNER_PROXY));
+    }
+
+    @Test
+    void ignoresSpoofedAddressesLeftOfTheClient() {
+        Assertions.assertEquals(
+            this.rateLimits.clientKey(PROXY, "1.1.1.1, 5.6.7.8"),
+            this.rateLimits.clientKey(PROXY, "2.2.2.2,5.6.7.8")
+        );
+    }
+
+    @Test
+    void fallsBackToPeerWhenEveryHopIsTrusted() {
+        Assertions.assertEquals(key(PROXY), this.rateLimits.clientKey(PROXY, INNER_PROXY + ", ,"));
+        Assertions.assertEquals(key(PROXY), this.rateLimits.clientKey(PROXY, ""));
+    }
+
+    @Test
+    void onlyLimitsConfiguredPaths() {
+        Assertions.assertEquals(0, this.rateLimits.tryAcquire("/api/v1/vote", "1.2.3.4", null, 0));
+        Assertions.assertNotEquals(0, this.rateLimits.tryAcquire("/api/v1/vote", "1.2.3.4", null, 0));
+        Assertions.assertEquals(0, this.rateLimits.tryAcquire("/api/v1/results", "1.2.3.4", null, 0));
+        Assertions.assertEquals(0, this.rateLimits.tryAcquire("/api/v1/vote", "5.6.7.8", null, 0));
+    }
+
+    @Test
+    void roundsRetryAfterUp() {
+        Assertions.assertEquals(1, RateLimits.toRetryAfterSeconds(1));
+        Assertions.assertEquals(1, RateLimits.toRetryAfterSeconds(1_000_000_000L));
+        Assertions.assertEquals(2, RateLimits.toRetryAfterSeconds(1_000_000_001L));
+    }
+
+    private static long key(@NotNull String address) {
+        return RateLimits.fingerprint(address, 0, address.length());
+    }
+}
@@ -0,0 +1,246 @@
+/*
+ * This file is part of election-backend, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) Pasqual Koschmieder <https://github.com/derklaro>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package de.birklehof.election.backend.rest;
+
+import de.birklehof.election.backend.teams.Leaderboard;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import javax.servlet.AsyncContext;
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.ServletContext;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import javax.servlet.WriteListener;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+class ResultStreamBroadcasterTest {
+
+    private static final long INTERVAL = 10;
+
+    private final Leaderboard leaderboard = new Leaderboard(0, 1, teamId -> null) {
+    };
+    private final ResultStreamBroadcaster broadcaster = new ResultStreamBroadcaster(INTERVAL, TimeUnit.MINUTES.toMillis(1));
+
+    @AfterEach
+    void closeBroadcaster() {
+        this.broadcaster.close();
+    }
+
+    @Test
+    void closesOnlyTheSubscriberWhichNeverReads() throws IOException {
+        var stalledContext = new FakeAsyncContext();
+        // the client never reads, the socket buffer is full after the first frame
+        var stalledStream = new FakeOutputStream(1);
+        var readingContext = new FakeAsyncContext();
+        var readingStream = new FakeOutputStream(Integer.MAX_VALUE);
+
+        this.broadcaster.subscribe("election", this.leaderboard, stalledContext, stalledStream);
+        this.broadcaster.subscribe("election", this.leaderboard, readingContext, readingStream);
+        stalledStream.listener.onWritePossible();
+        readingStream.listener.onWritePossible();
+
+        Assertions.assertTrue(this.await(stalledContext::isCompleted), "stalled subscriber was not closed");
+        Assertions.assertTrue(stalledStream.getContent().startsWith("id:0\nevent:results\n"));
+
+        // the stalled subscriber holds no thread, the other subscriber still gets every new version
+        this.leaderboard.markChanged(0);
+        Assertions.assertTrue(this.await(() -> readingStream.getContent().contains("id:1\n")), "reading subscriber missed a frame");
+        Assertions.assertFalse(readingContext.isCompleted());
+        Assertions.assertTrue(this.broadcaster.hasChannel("election"));
+    }
+
+    @Test
+    void removesChannelWithItsLastSubscriber() throws IOException {
+        var context = new FakeAsyncContext();
+        var stream = new FakeOutputStream(Integer.MAX_VALUE);
+        this.broadcaster.subscribe("election", this.leaderboard, context, stream);
+        stream.listener.onWritePossible();
+        Assertions.assertTrue(this.broadcaster.hasChannel("election"));
+
+        // the client disconnected
+        context.complete();
+        Assertions.assertFalse(this.broadcaster.hasChannel("election"));
+    }
+
+    @Test
+    void prefixesEveryPayloadLineAsDataField() {
+        var event = new String(ResultStreamBroadcaster.encodeEvent(3, "{\n  \"a\": 1\r\n}"), StandardCharsets.UTF_8);
+        Assertions.assertEquals("id:3\nevent:results\ndata:{\ndata:  \"a\": 1\ndata:}\n\n", event);
+    }
+
+    private boolean await(@NotNull BooleanSupplier condition) {
+        var deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() > deadline) {
+                return false;
+            }
+            try {
+                Thread.sleep(INTERVAL);
+            } catch (InterruptedException exception) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static final class FakeOutputStream extends ServletOutputStream {
+
+        private final int capacity;
+        private final ByteArrayOutputStream content = new ByteArrayOutputStream();
+        private volatile WriteListener listener;
+
+        private FakeOutputStream(int capacity) {
+            this.capacity = capacity;
+        }
+
+        @Override
+        public synchronized boolean isReady() {
+            return this.content.size() < this.capacity;
+        }
+
+        @Override
+        public void setWriteListener(WriteListener writeListener) {
+            this.listener = writeListener;
+        }
+
+        @Override
+        public synchronized void write(int b) throws IOException {
+            if (!this.isReady()) {
+                throw new IOException("Write while the stream is not ready");
+            }
+            this.content.write(b);
+        }
+
+        @Override
+        public synchronized void write(byte[] b, int off, int len) throws IOException {
+            if (!this.isReady()) {
+                throw new IOException("Write while the stream is not ready");
+            }
+            this.content.write(b, off, len);
+        }
+
+        @NotNull
+        private synchronized String getContent() {
+            return new String(this.content.toByteArray(), StandardCharsets.UTF_8);
+        }
+    }
+
+    private static final class FakeAsyncContext implements AsyncContext {
+
+        private final List<AsyncListener> listeners = new CopyOnWriteArrayList<>();
+        private volatile boolean completed;
+
+        private boolean isCompleted() {
+            return this.completed;
+        }
+
+        @Override
+        public void complete() {
+            if (this.completed) {
+                throw new IllegalStateException("Already completed");
+            }
+            this.completed = true;
+            for (AsyncListener listener : this.listeners) {
+                try {
+                    listener.onComplete(new AsyncEvent(this));
+                } catch (IOException exception) {
+                    throw new IllegalStateException(exception);
+                }
+            }
+        }
+
+        @Override
+        public void addListener(AsyncListener listener) {
+            this.listeners.add(listener);
+        }
+
+        @Override
+        public void addListener(AsyncListener listener, ServletRequest servletRequest, ServletResponse servletResponse) {
+            this.listeners.add(listener);
+        }
+
+        @Override
+        public ServletRequest getRequest() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public ServletResponse getResponse() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public boolean hasOriginalRequestAndResponse() {
+            return true;
+        }
+
+        @Override
+        public void dispatch() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void dispatch(String path) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void dispatch(ServletContext context, String path) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void start(Runnable run) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public <T extends AsyncListener> T createListener(Class<T> clazz) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void setTimeout(long timeout) {
+            // the tests never time out
+        }
+
+        @Override
+        public long getTimeout() {
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,215 @@
+/*
+ * This file is part of election-backend, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) Pasqual Koschmieder <https://github.com/derklaro>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package de.birklehof.election.backend.teams;
+
+import de.birklehof.election.backend.election.ElectionTables;
+import de.birklehof.election.backend.sql.MySQLController;
+import de.birklehof.election.backend.sql.SQLConsumer;
+import de.birklehof.election.backend.sql.SQLFunction;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+class BallotLedgerTest {
+
+    private static final long NOW = TimeUnit.DAYS.toMillis(1);
+
+    private final FakeBallotTable table = new FakeBallotTable();
+    private final TeamTally tally = new TeamTally(4);
+    private final BallotLedger ledger = new BallotLedger(
+        this.table,
+        new ElectionTables(ElectionTables.DEFAULT_ELECTION),
+        this.tally,
+        new Leaderboard(0, 4, this::lookupTeam),
+        this::lookupTeam
+    );
+
+    @Test
+    void countsContiguousBallots() {
+        this.table.commit(1, 0);
+        this.table.commit(2, 0);
+        this.table.commit(3, 1);
+
+        this.ledger.aggregate(NOW);
+        this.assertVotes(2, 1);
+    }
+
+    @Test
+    void countsBallotCommittedLateIntoGapOnce() {
+        this.table.commit(1, 0);
+        this.table.commit(3, 0);
+        this.ledger.aggregate(NOW);
+        this.assertVotes(2, 0);
+
+        // the insert with the lower sequence number committed after the higher one
+        this.table.commit(2, 1);
+        this.ledger.aggregate(NOW + 1);
+        this.assertVotes(2, 1);
+
+        this.ledger.aggregate(NOW + 2);
+        this.assertVotes(2, 1);
+    }
+
+    @Test
+    void splitsGapWhenBallotsInsideItCommit() {
+        this.table.commit(1, 0);
+        this.table.commit(5, 0);
+        this.ledger.aggregate(NOW);
+
+        this.table.commit(3, 1);
+        this.ledger.aggregate(NOW + 1);
+        this.assertVotes(2, 1);
+
+        this.table.commit(2, 1);
+        this.table.commit(4, 1);
+        this.ledger.aggregate(NOW + 2);
+        this.ledger.aggregate(NOW + 3);
+        this.assertVotes(2, 3);
+    }
+
+    @Test
+    void forgetsGapAfterTimeout() {
+        this.table.commit(1, 0);
+        this.table.commit(3, 0);
+        this.ledger.aggregate(NOW);
+
+        // a failed insert or a deleted ballot never fills its gap, it is not looked up forever
+        this.table.commit(2, 1);
+        this.ledger.aggregate(NOW + TimeUnit.SECONDS.toMillis(30));
+        this.assertVotes(2, 0);
+    }
+
+    @Test
+    void continuesAfterLoadedTotals() {
+        this.table.commit(1, 0);
+        this.table.commit(2, 1);
+        var totals = this.ledger.loadTotals();
+        Assertions.assertEquals(Map.of(0, 1L, 1, 1L), totals);
+
+        this.table.commit(3, 1);
+        this.ledger.aggregate(NOW);
+        this.assertVotes(0, 1);
+    }
+
+    private void assertVotes(long first, long second) {
+        Assertions.assertEquals(first, this.tally.get(0));
+        Assertions.assertEquals(second, this.tally.get(1));
+    }
+
+    @NotNull
+    private Team lookupTeam(int teamId) {
+        return new SQLTeam(teamId, "team" + teamId, this.tally, null);
+    }
+
+    // the ballots table, only rows which were committed are visible to the ledger
+    private static final class FakeBallotTable implements MySQLController {
+
+        private final TreeMap<Long, Integer> committed = new TreeMap<>();
+
+        private void commit(long seq, int team) {
+            this.committed.put(seq, team);
+        }
+
+        @Override
+        public boolean executeUpdate(@NotNull String statement, @NotNull SQLConsumer modifier) {
+            return true;
+        }
+
+        @Override
+        public <T> T executeQuery(@NotNull String query, @NotNull SQLConsumer modifier, @NotNull SQLFunction<T> mapper, T defaultValue) {
+            try {
+                var parameters = new HashMap<Integer, Object>();
+                modifier.accept(statement(parameters));
+                return mapper.apply(resultSet(this.select(query, parameters)));
+            } catch (SQLException exception) {
+                throw new IllegalStateException(exception);
+            }
+        }
+
+        @NotNull
+        private List<Map<String, Object>> select(@NotNull String query, @NotNull Map<Integer, Object> parameters) {
+            List<Map<String, Object>> rows = new ArrayList<>();
+            if (query.contains("MAX(`seq`)")) {
+                rows.add(Map.of("seq", this.committed.isEmpty() ? 0L : this.committed.lastKey()));
+            } else if (query.contains("COUNT(*)")) {
+                var votes = new TreeMap<Integer, Long>();
+                this.committed.headMap((Long) parameters.get(1), true).values().forEach(team -> votes.merge(team, 1L, Long::sum));
+                votes.forEach((team, count) -> rows.add(Map.of("team", team, "votes", count)));
+            } else if (query.contains("BETWEEN")) {
+                for (int i = 1; parameters.containsKey(i); i += 2) {
+                    this.committed.subMap((Long) parameters.get(i), true, (Long) parameters.get(i + 1), true).forEach((seq, team) -> rows.add(Map.of("seq", seq, "team", team)));
+                }
+            } else if (query.contains("`seq` > ?")) {
+                this.committed.tailMap((Long) parameters.get(1), false).forEach((seq, team) -> rows.add(Map.of("seq", seq, "team", team)));
+            } else {
+                throw new IllegalArgumentException("Unexpected query " + query);
+            }
+            return rows;
+        }
+
+        @NotNull
+        private static PreparedStatement statement(@NotNull Map<Integer, Object> parameters) {
+            return (PreparedStatement) Proxy.newProxyInstance(BallotLedgerTest.class.getClassLoader(), new Class<?>[]{PreparedStatement.class}, (proxy, method, args) -> {
+                if (method.getName().startsWith("set") && args.length == 2) {
+                    parameters.put((Integer) args[0], args[1]);
+                    return null;
+                }
+                throw new UnsupportedOperationException(method.getName());
+            });
+        }
+
+        @NotNull
+        private static ResultSet resultSet(@NotNull List<Map<String, Object>> rows) {
+            Iterator<Map<String, Object>> iterator = rows.iterator();
+            AtomicReference<Map<String, Object>> current = new AtomicReference<>();
+            return (ResultSet) Proxy.newProxyInstance(BallotLedgerTest.class.getClassLoader(), new Class<?>[]{ResultSet.class}, (proxy, method, args) -> {
+                switch (method.getName()) {
+                    case "next":
+                        current.set(iterator.hasNext() ? iterator.next() : null);
+                        return current.get() != null;
+                    case "getLong":
+                        return ((Number) current.get().get((String) args[0])).longValue();
+                    case "getInt":
+                        return ((Number) current.get().get((String) args[0])).intValue();
+                    default:
+                        throw new UnsupportedOperationException(method.getName());
+                }
+            });
+        }
+    }
+}